@@ -0,0 +1,107 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ *
+ * <p>CLOSED lets every call through. After {@code failureThreshold} consecutive failures it turns OPEN
+ * and rejects calls for {@code openDuration}. The first call after that runs as a HALF_OPEN trial:
+ * success closes the circuit, failure opens it again for twice as long, up to {@code maxOpenDuration}.
+ */
+public class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final int failureThreshold;
+	private final Duration openDuration;
+	private final Duration maxOpenDuration;
+	private final Clock clock;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private Instant openedAt;
+	private Duration currentOpenDuration;
+	private boolean trialInFlight;
+
+	public CircuitBreaker(int failureThreshold, Duration openDuration) {
+		this(failureThreshold, openDuration, openDuration, Clock.systemUTC());
+	}
+
+	public CircuitBreaker(int failureThreshold, Duration openDuration, Duration maxOpenDuration) {
+		this(failureThreshold, openDuration, maxOpenDuration, Clock.systemUTC());
+	}
+
+	public CircuitBreaker(int failureThreshold, Duration openDuration, Duration maxOpenDuration, Clock clock) {
+		this.failureThreshold = failureThreshold;
+		this.openDuration = openDuration;
+		this.maxOpenDuration = maxOpenDuration.compareTo(openDuration) < 0 ? openDuration : maxOpenDuration;
+		this.currentOpenDuration = openDuration;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns whether a call may proceed. Every permitted call must be followed by
+	 * {@link #recordSuccess()} or {@link #recordFailure()}.
+	 */
+	public synchronized boolean tryAcquire() {
+		switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (clock.instant().isBefore(openedAt.plus(currentOpenDuration))) {
+					return false;
+				}
+				state = State.HALF_OPEN;
+				trialInFlight = true;
+				return true;
+			case HALF_OPEN:
+			default:
+				// Only one trial call at a time
+				if (trialInFlight) {
+					return false;
+				}
+				trialInFlight = true;
+				return true;
+		}
+	}
+
+	public synchronized void recordSuccess() {
+		state = State.CLOSED;
+		consecutiveFailures = 0;
+		trialInFlight = false;
+		currentOpenDuration = openDuration;
+	}
+
+	public synchronized void recordFailure() {
+		consecutiveFailures++;
+		trialInFlight = false;
+		if (state == State.HALF_OPEN) {
+			// The upstream is still down after a full open window, so back off further before the next trial
+			Duration doubled = currentOpenDuration.multipliedBy(2);
+			currentOpenDuration = doubled.compareTo(maxOpenDuration) > 0 ? maxOpenDuration : doubled;
+		}
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			state = State.OPEN;
+			openedAt = clock.instant();
+		}
+	}
+
+	/**
+	 * Gives back a permit whose call was cancelled before it had an outcome, so an abandoned
+	 * HALF_OPEN trial does not block every later trial.
+	 */
+	public synchronized void recordCancellation() {
+		trialInFlight = false;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+}
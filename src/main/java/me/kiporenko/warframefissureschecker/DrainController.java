@@ -0,0 +1,68 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Admin endpoint for draining before a deploy, e.g. from a preStop hook:
+// curl -X POST -H "Authorization: Bearer $FISSURES_DRAIN_TOKEN" localhost:5050/admin/drain
+@RestController
+@RequestMapping("/admin/drain")
+public class DrainController {
+
+	private static final Logger logger = LoggerFactory.getLogger(DrainController.class);
+	private static final String BEARER_PREFIX = "Bearer ";
+
+	private final DrainCoordinator drainCoordinator;
+	private final byte[] token;
+
+	public DrainController(DrainCoordinator drainCoordinator,
+	                       @Value("${fissures.drain.token:}") String token) {
+		this.drainCoordinator = drainCoordinator;
+		this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+		if (this.token == null) {
+			logger.info("fissures.drain.token is not set, /admin/drain is disabled; shutdown still drains");
+		}
+	}
+
+	@PostMapping
+	public ResponseEntity<DrainCoordinator.Progress> startDrain(
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		requireToken(authorization);
+		logger.info("Drain requested through the admin endpoint");
+		return ResponseEntity.accepted().body(drainCoordinator.startDrain());
+	}
+
+	@GetMapping
+	public ResponseEntity<DrainCoordinator.Progress> getProgress(
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+		requireToken(authorization);
+		return ResponseEntity.ok()
+				.header("Cache-Control", "no-cache")
+				.body(drainCoordinator.getProgress());
+	}
+
+	// The peer address proves nothing behind a local proxy or sidecar, so callers need the configured token
+	private void requireToken(String authorization) {
+		if (token == null) {
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Drain endpoint is disabled");
+		}
+		if (authorization == null || !authorization.startsWith(BEARER_PREFIX)
+				|| !MessageDigest.isEqual(token,
+						authorization.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8))) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid drain token");
+		}
+	}
+}
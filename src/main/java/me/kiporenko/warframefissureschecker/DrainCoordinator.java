@@ -0,0 +1,213 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains parked long-polls before the node goes away, either on shutdown or through the admin endpoint.
+ *
+ * <p>Once draining, no new listeners are parked. Parked ones are answered with their current data in
+ * evenly sized batches so they are all released by the deadline, and every response carries a
+ * randomized reconnect hint. Reconnects then reach the surviving replicas spread over time instead
+ * of all at once. Stops before the web server's graceful shutdown, which would otherwise wait
+ * for every parked request to time out.
+ */
+@Component
+public class DrainCoordinator implements SmartLifecycle {
+
+	private static final Logger logger = LoggerFactory.getLogger(DrainCoordinator.class);
+
+	private final FissureService fissureService;
+	private final Duration deadline;
+	private final Duration interval;
+	private final Duration reconnectSpread;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "listener-drain");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final List<Runnable> completionCallbacks = new ArrayList<>();
+	private volatile boolean running;
+	private volatile Instant startedAt;
+	private volatile Instant completedAt;
+	private volatile int initialListeners;
+	private volatile int releasedListeners;
+
+	public DrainCoordinator(FissureService fissureService,
+	                        @Value("${fissures.drain.deadline:10s}") Duration deadline,
+	                        @Value("${fissures.drain.interval:250ms}") Duration interval,
+	                        @Value("${fissures.drain.reconnect-spread:5s}") Duration reconnectSpread) {
+		this.fissureService = fissureService;
+		this.deadline = deadline;
+		this.interval = interval;
+		this.reconnectSpread = reconnectSpread;
+	}
+
+	/**
+	 * Starts draining if it has not started yet. Safe to call repeatedly.
+	 */
+	public synchronized Progress startDrain() {
+		if (startedAt == null) {
+			startedAt = Instant.now();
+			initialListeners = fissureService.beginDrain();
+			scheduler.execute(this::releaseBatch);
+		}
+		return getProgress();
+	}
+
+	public boolean isDraining() {
+		return startedAt != null;
+	}
+
+	/**
+	 * Milliseconds a client should wait before reconnecting to another node, or -1 when not draining.
+	 * Randomized per response so released clients do not return in lockstep.
+	 */
+	public long reconnectDelayMillis() {
+		if (!isDraining()) {
+			return -1;
+		}
+		return ThreadLocalRandom.current().nextLong(reconnectSpread.toMillis() + 1);
+	}
+
+	private void releaseBatch() {
+		try {
+			int parked = fissureService.getActiveListenerCount();
+			long remainingMillis = Duration.between(Instant.now(), startedAt.plus(deadline)).toMillis();
+
+			if (parked > 0) {
+				// Spread what is left evenly over the remaining intervals; release everything at the deadline
+				long remainingSteps = Math.max(1, remainingMillis / Math.max(1, interval.toMillis()));
+				int batch = remainingMillis <= 0 ? parked : (int) Math.ceil((double) parked / remainingSteps);
+				int released = fissureService.releaseListeners(batch);
+				releasedListeners += released;
+				logger.debug("Drain released {} listeners, {} still parked", released, parked - released);
+			}
+
+			if (fissureService.getActiveListenerCount() == 0 || remainingMillis <= 0) {
+				complete();
+			} else {
+				scheduler.schedule(this::releaseBatch, interval.toMillis(), TimeUnit.MILLISECONDS);
+			}
+		} catch (RuntimeException e) {
+			logger.error("Error while draining listeners", e);
+			complete();
+		}
+	}
+
+	private void complete() {
+		List<Runnable> callbacks;
+		synchronized (this) {
+			completedAt = Instant.now();
+			callbacks = new ArrayList<>(completionCallbacks);
+			completionCallbacks.clear();
+		}
+		logger.info("Drain completed in {} ms: released {} listeners",
+				Duration.between(startedAt, completedAt).toMillis(), releasedListeners);
+		callbacks.forEach(Runnable::run);
+	}
+
+	public synchronized Progress getProgress() {
+		if (startedAt == null) {
+			return new Progress(false, false, 0, 0, fissureService.getActiveListenerCount(), 0, deadline.toMillis());
+		}
+		Instant end = completedAt != null ? completedAt : Instant.now();
+		return new Progress(true, completedAt != null, initialListeners, releasedListeners,
+				fissureService.getActiveListenerCount(), Duration.between(startedAt, end).toMillis(),
+				deadline.toMillis());
+	}
+
+	@Override
+	public void start() {
+		running = true;
+	}
+
+	/**
+	 * Drains synchronously. The container uses {@link #stop(Runnable)}; this is for direct callers.
+	 */
+	@Override
+	public void stop() {
+		CountDownLatch stopped = new CountDownLatch(1);
+		stop(stopped::countDown);
+		try {
+			// The last batch runs at the deadline, so allow one more interval for it to finish
+			if (!stopped.await(deadline.plus(interval).toMillis(), TimeUnit.MILLISECONDS)) {
+				logger.warn("Drain did not complete within {} ms", deadline.toMillis());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		synchronized (this) {
+			running = false;
+			if (completedAt == null) {
+				completionCallbacks.add(() -> {
+					scheduler.shutdown();
+					callback.run();
+				});
+				startDrain();
+				return;
+			}
+		}
+		scheduler.shutdown();
+		callback.run();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		// Stop before WebServerGracefulShutdownLifecycle, so parked requests are answered rather than awaited
+		return SmartLifecycle.DEFAULT_PHASE;
+	}
+
+	// Drain progress for the admin endpoint
+	public static class Progress {
+		private final boolean draining;
+		private final boolean completed;
+		private final int initialListeners;
+		private final int releasedListeners;
+		private final int remainingListeners;
+		private final long elapsedMs;
+		private final long deadlineMs;
+
+		public Progress(boolean draining, boolean completed, int initialListeners, int releasedListeners,
+		                int remainingListeners, long elapsedMs, long deadlineMs) {
+			this.draining = draining;
+			this.completed = completed;
+			this.initialListeners = initialListeners;
+			this.releasedListeners = releasedListeners;
+			this.remainingListeners = remainingListeners;
+			this.elapsedMs = elapsedMs;
+			this.deadlineMs = deadlineMs;
+		}
+
+		public boolean isDraining() { return draining; }
+		public boolean isCompleted() { return completed; }
+		public int getInitialListeners() { return initialListeners; }
+		public int getReleasedListeners() { return releasedListeners; }
+		public int getRemainingListeners() { return remainingListeners; }
+		public long getElapsedMs() { return elapsedMs; }
+		public long getDeadlineMs() { return deadlineMs; }
+	}
+}
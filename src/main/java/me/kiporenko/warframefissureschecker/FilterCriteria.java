@@ -1,6 +1,8 @@
 package me.kiporenko.warframefissureschecker;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 public class FilterCriteria {
@@ -10,10 +12,10 @@ public class FilterCriteria {
 	private final int cachedHashCode; // Cache hashcode for performance
 
 	public FilterCriteria(List<String> missionTypes, Boolean isHard) {
-		this.missionTypes = missionTypes;
+		this.missionTypes = canonicalize(missionTypes);
 		this.isHard = isHard;
 		this.cachedKey = generateKey();
-		this.cachedHashCode = Objects.hash(missionTypes, isHard);
+		this.cachedHashCode = Objects.hash(this.missionTypes, isHard);
 	}
 
 	public List<String> getMissionTypes() {
@@ -28,6 +30,25 @@ public class FilterCriteria {
 		return cachedKey;
 	}
 
+	// Matching is case-insensitive and order-independent, so "Defense,capture" and "Capture,defense"
+	// share one key instead of spreading over cache entries and listener buckets. Entries are split on
+	// the key delimiter, because repeated request params bind as ["capture,defense", "spy"] and must not
+	// share a key with a different filter
+	private static List<String> canonicalize(List<String> missionTypes) {
+		if (missionTypes == null) {
+			return null;
+		}
+		List<String> canonical = missionTypes.stream()
+				.filter(Objects::nonNull)
+				.flatMap(type -> Arrays.stream(type.split(",")))
+				.map(type -> type.trim().toLowerCase(Locale.ROOT))
+				.filter(type -> !type.isEmpty())
+				.distinct()
+				.sorted()
+				.toList();
+		return canonical.isEmpty() ? null : canonical;
+	}
+
 	private String generateKey() {
 		return String.format("types:%s,hard:%s",
 				missionTypes != null && !missionTypes.isEmpty() ? String.join(",", missionTypes) : "all",
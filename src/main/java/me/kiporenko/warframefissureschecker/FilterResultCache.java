@@ -0,0 +1,164 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of {@link FilteredFissures} keyed by canonical criteria and snapshot version.
+ *
+ * <p>Hits are lock-free and return the shared immutable view. Entries are bounded both by count and
+ * by weight (number of cached fissure references). When full, entries from older snapshots are evicted
+ * first; otherwise a new entry is only admitted if its criteria have been requested more often than
+ * the least frequently used resident entry, so a stream of one-off criteria cannot flush the popular
+ * ones. Request frequencies are tracked in a {@link FrequencySketch}, so old popularity fades.
+ */
+public class FilterResultCache {
+
+	private final int maxEntries;
+	private final long maxWeight;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final FrequencySketch sketch = new FrequencySketch();
+	private long totalWeight;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong rejections = new AtomicLong();
+
+	private static class Entry {
+		final FilteredFissures view;
+		final int weight;
+
+		Entry(FilteredFissures view) {
+			this.view = view;
+			this.weight = 1 + view.size();
+		}
+	}
+
+	public FilterResultCache(int maxEntries, long maxWeight) {
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * Returns the cached view for the criteria at exactly this snapshot version, or {@code null}.
+	 */
+	public FilteredFissures get(FilterCriteria criteria, long version) {
+		String key = criteria.getKey();
+		sketch.recordAccess(key);
+
+		Entry entry = entries.get(key);
+		if (entry != null && entry.view.getVersion() == version) {
+			hits.incrementAndGet();
+			return entry.view;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	public synchronized void put(FilteredFissures view) {
+		String key = view.getCriteria().getKey();
+		Entry candidate = new Entry(view);
+		if (candidate.weight > maxWeight) {
+			rejections.incrementAndGet();
+			return;
+		}
+
+		Entry existing = entries.get(key);
+		if (existing != null) {
+			if (existing.view.getVersion() > view.getVersion()) {
+				return; // a newer snapshot already won the race
+			}
+			entries.remove(key);
+			totalWeight -= existing.weight;
+		}
+
+		int candidateFrequency = sketch.frequency(key);
+		while (entries.size() >= maxEntries || totalWeight + candidate.weight > maxWeight) {
+			// Residents from an older snapshot go first and never block a newer view, so views pre-warmed
+			// for the next snapshot are admitted even while the cache is still full of the current one
+			String victimKey = null;
+			boolean victimOutdated = false;
+			int victimFrequency = Integer.MAX_VALUE;
+			for (Map.Entry<String, Entry> resident : entries.entrySet()) {
+				boolean outdated = resident.getValue().view.getVersion() < view.getVersion();
+				int residentFrequency = sketch.frequency(resident.getKey());
+				if ((outdated && !victimOutdated)
+						|| (outdated == victimOutdated && residentFrequency < victimFrequency)) {
+					victimKey = resident.getKey();
+					victimOutdated = outdated;
+					victimFrequency = residentFrequency;
+				}
+			}
+			if (victimKey == null || (!victimOutdated && victimFrequency >= candidateFrequency)) {
+				rejections.incrementAndGet();
+				return;
+			}
+			Entry victim = entries.remove(victimKey);
+			totalWeight -= victim.weight;
+			evictions.incrementAndGet();
+		}
+
+		entries.put(key, candidate);
+		totalWeight += candidate.weight;
+	}
+
+	/**
+	 * Drops every entry built from a snapshot older than {@code version}.
+	 * Request frequencies are kept, so popular criteria stay admitted across snapshots.
+	 */
+	public synchronized void invalidateBefore(long version) {
+		entries.values().removeIf(entry -> {
+			if (entry.view.getVersion() < version) {
+				totalWeight -= entry.weight;
+				return true;
+			}
+			return false;
+		});
+	}
+
+	public synchronized Stats getStats() {
+		return new Stats(hits.get(), misses.get(), evictions.get(), rejections.get(),
+				entries.size(), totalWeight, maxEntries, maxWeight);
+	}
+
+	// Cache statistics for monitoring
+	public static class Stats {
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final long rejections;
+		private final int size;
+		private final long weight;
+		private final int maxEntries;
+		private final long maxWeight;
+
+		public Stats(long hits, long misses, long evictions, long rejections,
+		             int size, long weight, int maxEntries, long maxWeight) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.rejections = rejections;
+			this.size = size;
+			this.weight = weight;
+			this.maxEntries = maxEntries;
+			this.maxWeight = maxWeight;
+		}
+
+		public long getHits() { return hits; }
+		public long getMisses() { return misses; }
+		public long getEvictions() { return evictions; }
+		public long getRejections() { return rejections; }
+		public int getSize() { return size; }
+		public long getWeight() { return weight; }
+		public int getMaxEntries() { return maxEntries; }
+		public long getMaxWeight() { return maxWeight; }
+
+		public double getHitRate() {
+			long requests = hits + misses;
+			return requests == 0 ? 0.0 : (double) hits / requests;
+		}
+	}
+}
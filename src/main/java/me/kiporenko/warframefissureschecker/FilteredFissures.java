@@ -0,0 +1,58 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable result of filtering one fissure snapshot by a {@link FilterCriteria}.
+ * Instances are shared between requests, so neither list nor ID set may be modified.
+ */
+public class FilteredFissures {
+	private final long version;
+	private final FilterCriteria criteria;
+	private final List<Fissure> fissures;
+	private final Set<String> fissureIds;
+
+	public FilteredFissures(long version, FilterCriteria criteria, List<Fissure> fissures) {
+		this.version = version;
+		this.criteria = criteria;
+		this.fissures = List.copyOf(fissures);
+
+		Set<String> ids = new LinkedHashSet<>();
+		for (Fissure fissure : fissures) {
+			ids.add(fissure.getId());
+		}
+		this.fissureIds = Collections.unmodifiableSet(ids);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public FilterCriteria getCriteria() {
+		return criteria;
+	}
+
+	public List<Fissure> getFissures() {
+		return fissures;
+	}
+
+	public Set<String> getFissureIds() {
+		return fissureIds;
+	}
+
+	public int size() {
+		return fissures.size();
+	}
+
+	@Override
+	public String toString() {
+		return "FilteredFissures{" +
+				"version=" + version +
+				", criteria=" + criteria +
+				", size=" + fissures.size() +
+				'}';
+	}
+}
@@ -0,0 +1,97 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Difference between two fissure snapshots, matched by fissure ID.
+ *
+ * <p>{@link #getChanged()} holds the fissure states that can change which IDs a subscription sees:
+ * added and removed fissures, plus both the old and new state of a fissure whose mission type or
+ * hard-mode flag changed. Other modifications (e.g. {@code eta} ticking down) are reported in
+ * {@link #getModified()} but wake nobody, because listeners only react to ID set changes.
+ */
+public class FissureChangeSet {
+	private final List<Fissure> added;
+	private final List<Fissure> removed;
+	private final List<Fissure> modified;
+	private final List<Fissure> changed;
+
+	private FissureChangeSet(List<Fissure> added, List<Fissure> removed, List<Fissure> modified,
+	                         List<Fissure> changed) {
+		this.added = added;
+		this.removed = removed;
+		this.modified = modified;
+		this.changed = changed;
+	}
+
+	public static FissureChangeSet between(List<Fissure> previous, List<Fissure> next) {
+		Map<String, Fissure> previousById = new HashMap<>();
+		for (Fissure fissure : previous) {
+			previousById.put(fissure.getId(), fissure);
+		}
+
+		List<Fissure> added = new ArrayList<>();
+		List<Fissure> modified = new ArrayList<>();
+		List<Fissure> changed = new ArrayList<>();
+
+		for (Fissure fissure : next) {
+			Fissure before = previousById.remove(fissure.getId());
+			if (before == null) {
+				added.add(fissure);
+				changed.add(fissure);
+			} else if (!before.equals(fissure)) {
+				modified.add(fissure);
+				if (!sameSubscriptionAttributes(before, fissure)) {
+					changed.add(before);
+					changed.add(fissure);
+				}
+			}
+		}
+
+		List<Fissure> removed = new ArrayList<>(previousById.values());
+		changed.addAll(removed);
+
+		return new FissureChangeSet(List.copyOf(added), List.copyOf(removed), List.copyOf(modified),
+				List.copyOf(changed));
+	}
+
+	private static boolean sameSubscriptionAttributes(Fissure before, Fissure after) {
+		return before.isHard() == after.isHard()
+				&& Objects.equals(before.getMissionType(), after.getMissionType());
+	}
+
+	public List<Fissure> getAdded() {
+		return added;
+	}
+
+	public List<Fissure> getRemoved() {
+		return removed;
+	}
+
+	public List<Fissure> getModified() {
+		return modified;
+	}
+
+	// Every fissure state that could change a subscription's ID set, old and new
+	public List<Fissure> getChanged() {
+		return changed;
+	}
+
+	// True when no subscription can observe a difference between the two snapshots
+	public boolean isEmpty() {
+		return changed.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "FissureChangeSet{" +
+				"added=" + added.size() +
+				", removed=" + removed.size() +
+				", modified=" + modified.size() +
+				'}';
+	}
+}
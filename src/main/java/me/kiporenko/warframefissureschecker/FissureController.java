@@ -1,5 +1,6 @@
 package me.kiporenko.warframefissureschecker;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +11,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.catalina.connector.ClientAbortException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -24,29 +27,44 @@ public class FissureController {
 	private static final Logger logger = LoggerFactory.getLogger(FissureController.class);
 	private static final int MAX_MISSION_TYPES = 10;
 	private static final long TIMEOUT_MS = 30_000L;
+	private static final String STALE_HEADER = "X-Fissures-Stale";
+	private static final String STALE_REASON_HEADER = "X-Fissures-Stale-Reason";
+	private static final String LAST_REFRESHED_HEADER = "X-Fissures-Last-Refreshed";
+	private static final String RECONNECT_AFTER_HEADER = "X-Fissures-Reconnect-After-Ms";
 
 	private final FissureService fissureService;
+	private final FissurePayloadEncoder payloadEncoder;
+	private final UpstreamFissureClient upstreamClient;
+	private final DrainCoordinator drainCoordinator;
 
-	public FissureController(FissureService fissureService) {
+	public FissureController(FissureService fissureService, FissurePayloadEncoder payloadEncoder,
+	                         UpstreamFissureClient upstreamClient, DrainCoordinator drainCoordinator) {
 		this.fissureService = fissureService;
+		this.payloadEncoder = payloadEncoder;
+		this.upstreamClient = upstreamClient;
+		this.drainCoordinator = drainCoordinator;
 	}
 
 	@GetMapping
-	public DeferredResult<FissureResponse> getFissures(
+	public DeferredResult<ResponseEntity<byte[]>> getFissures(
 			@RequestParam(required = false) List<String> missionTypes,
 			@RequestParam(required = false) Boolean isHard,
-			@RequestParam(required = false) String knownIds) {
+			@RequestParam(required = false) String knownIds,
+			@RequestParam(required = false) List<String> fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
 		logger.info("Received long polling request for fissures with missionTypes: {}, isHard: {}, knownIds: {}",
 				missionTypes, isHard, knownIds);
 
 		try {
-			validateInput(missionTypes);
-
 			Set<String> expectedFissureIds = parseKnownIds(knownIds);
 			FilterCriteria criteria = new FilterCriteria(missionTypes, isHard);
+			validateInput(criteria.getMissionTypes());
+			ResponseEncoding encoding = new ResponseEncoding(
+					WireFormat.fromAcceptHeader(accept), payloadEncoder.parseFields(fields));
+			fissureService.recordRequest(criteria, encoding.format(), encoding.fields());
 
-			return createDeferredResult(criteria, expectedFissureIds);
+			return createDeferredResult(criteria, expectedFissureIds, encoding);
 
 		} catch (ResponseStatusException e) {
 			throw e; // Re-throw validation errors
@@ -58,25 +76,26 @@ public class FissureController {
 	}
 
 	@GetMapping("/immediate")
-	public ResponseEntity<FissureResponse> getFissuresImmediate(
+	public ResponseEntity<byte[]> getFissuresImmediate(
 			@RequestParam(required = false) List<String> missionTypes,
-			@RequestParam(required = false) Boolean isHard) {
+			@RequestParam(required = false) Boolean isHard,
+			@RequestParam(required = false) List<String> fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
 		logger.info("Received immediate request for fissures with missionTypes: {} and isHard: {}",
 				missionTypes, isHard);
 
 		try {
-			validateInput(missionTypes);
-
 			FilterCriteria criteria = new FilterCriteria(missionTypes, isHard);
-			List<Fissure> results = fissureService.getFissuresImmediate(criteria);
+			validateInput(criteria.getMissionTypes());
+			ResponseEncoding encoding = new ResponseEncoding(
+					WireFormat.fromAcceptHeader(accept), payloadEncoder.parseFields(fields));
+			fissureService.recordRequest(criteria, encoding.format(), encoding.fields());
+			FilteredFissures results = fissureService.getFilteredFissures(criteria);
 
-			FissureResponse response = createFissureResponse(results);
 			logger.info("Returning {} fissures immediately for criteria: {}", results.size(), criteria);
 
-			return ResponseEntity.ok()
-					.header("Cache-Control", "no-cache, no-store, must-revalidate")
-					.body(response);
+			return createEncodedResponse(results, encoding);
 
 		} catch (ResponseStatusException e) {
 			throw e;
@@ -96,7 +115,10 @@ public class FissureController {
 					"Fissure service is running",
 					activeListeners,
 					currentFissures,
-					System.currentTimeMillis()
+					System.currentTimeMillis(),
+					fissureService.getFilterCacheStats(),
+					fissureService.getFreshness(),
+					upstreamClient.getStats()
 			);
 
 			logger.debug("Status check: {} active listeners, {} current fissures",
@@ -108,13 +130,18 @@ public class FissureController {
 		} catch (Exception e) {
 			logger.error("Error in getStatus", e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-					.body(new StatusResponse("Service error: " + e.getMessage(), 0, 0, System.currentTimeMillis()));
+					.body(new StatusResponse("Service error: " + e.getMessage(), 0, 0, System.currentTimeMillis(),
+							null, null, null));
 		}
 	}
 
 	@GetMapping("/test")
 	public ResponseEntity<String> test() {
 		logger.debug("Test endpoint called");
+		if (drainCoordinator.isDraining()) {
+			// Fail health checks so load balancers stop routing new polls here
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Service is draining");
+		}
 		return ResponseEntity.ok("Service is responding");
 	}
 
@@ -137,36 +164,65 @@ public class FissureController {
 				.collect(Collectors.toSet());
 	}
 
-	private FissureResponse createFissureResponse(List<Fissure> fissures) {
-		Set<String> currentIds = fissures.stream()
-				.map(Fissure::getId)
-				.collect(Collectors.toSet());
-		return new FissureResponse(fissures, currentIds);
+	private ResponseEntity<byte[]> createEncodedResponse(FilteredFissures fissures, ResponseEncoding encoding) {
+		byte[] payload = payloadEncoder.encode(fissures, encoding.format(), encoding.fields());
+		return ResponseEntity.ok()
+				.header("Cache-Control", "no-cache, no-store, must-revalidate")
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+				.headers(this::addFreshnessHeaders)
+				.headers(this::addDrainHeaders)
+				.contentType(encoding.format().getMediaType())
+				.body(payload);
 	}
 
-	private DeferredResult<FissureResponse> createDeferredResult(FilterCriteria criteria, Set<String> expectedFissureIds) {
-		DeferredResult<FissureResponse> result = new DeferredResult<>(TIMEOUT_MS);
-		DeferredResult<List<Fissure>> internalResult = new DeferredResult<>(TIMEOUT_MS);
+	// While draining, tell clients to reconnect elsewhere after a randomized delay and drop the keep-alive
+	private void addDrainHeaders(HttpHeaders headers) {
+		long reconnectAfter = drainCoordinator.reconnectDelayMillis();
+		if (reconnectAfter >= 0) {
+			headers.set(RECONNECT_AFTER_HEADER, Long.toString(reconnectAfter));
+			headers.set(HttpHeaders.CONNECTION, "close");
+		}
+	}
+
+	// Staleness lives in headers so cached payloads stay valid for the whole snapshot
+	private void addFreshnessHeaders(HttpHeaders headers) {
+		FissureService.Freshness freshness = fissureService.getFreshness();
+		headers.set(STALE_HEADER, Boolean.toString(freshness.isStale()));
+		if (freshness.getLastRefreshed() != null) {
+			headers.set(LAST_REFRESHED_HEADER, freshness.getLastRefreshed().toString());
+			long ageSeconds = Math.max(0, Duration.between(freshness.getLastRefreshed(), Instant.now()).getSeconds());
+			headers.set(HttpHeaders.AGE, Long.toString(ageSeconds));
+		}
+		if (freshness.getReason() != null) {
+			headers.set(STALE_REASON_HEADER, freshness.getReason().replaceAll("[\\r\\n]+", " "));
+		}
+	}
+
+	private DeferredResult<ResponseEntity<byte[]>> createDeferredResult(FilterCriteria criteria,
+	                                                                    Set<String> expectedFissureIds,
+	                                                                    ResponseEncoding encoding) {
+		DeferredResult<ResponseEntity<byte[]>> result = new DeferredResult<>(TIMEOUT_MS);
+		DeferredResult<FilteredFissures> internalResult = new DeferredResult<>(TIMEOUT_MS);
 
 		fissureService.registerListener(criteria, internalResult, expectedFissureIds);
 
-		setupDeferredResultHandlers(result, internalResult, criteria);
+		setupDeferredResultHandlers(result, internalResult, criteria, encoding);
 
 		return result;
 	}
 
-	private void setupDeferredResultHandlers(DeferredResult<FissureResponse> result,
-	                                         DeferredResult<List<Fissure>> internalResult,
-	                                         FilterCriteria criteria) {
+	private void setupDeferredResultHandlers(DeferredResult<ResponseEntity<byte[]>> result,
+	                                         DeferredResult<FilteredFissures> internalResult,
+	                                         FilterCriteria criteria,
+	                                         ResponseEncoding encoding) {
 
-		// Convert internal result to response format
-		internalResult.onCompletion(() -> {
+		// Convert internal result to response format. The internal result is never handed to Spring MVC,
+		// so completion callbacks do not fire for it; a result handler runs as soon as a value is set.
+		internalResult.setResultHandler(value -> {
 			if (!result.isSetOrExpired()) {
 				try {
-					@SuppressWarnings("unchecked")
-					List<Fissure> fissures = (List<Fissure>) internalResult.getResult();
-					FissureResponse response = createFissureResponse(fissures);
-					result.setResult(response);
+					FilteredFissures fissures = (FilteredFissures) value;
+					result.setResult(createEncodedResponse(fissures, encoding));
 				} catch (Exception e) {
 					logger.error("Error creating response", e);
 					result.setErrorResult(e);
@@ -177,7 +233,7 @@ public class FissureController {
 		// Handle internal result timeout
 		internalResult.onTimeout(() -> {
 			logger.info("Internal result timed out for criteria: {}", criteria);
-			setTimeoutFallback(result, criteria);
+			setTimeoutFallback(result, criteria, encoding);
 		});
 
 		internalResult.onError(throwable -> {
@@ -190,14 +246,19 @@ public class FissureController {
 		// Handle main result timeout
 		result.onTimeout(() -> {
 			logger.info("Main result timed out for criteria: {}, ensuring response is set", criteria);
-			setTimeoutFallback(result, criteria);
+			fissureService.unregisterListener(criteria, internalResult);
+			setTimeoutFallback(result, criteria, encoding);
 		});
 
+		// The service cannot see the outer request end, so unparked listeners are removed here; otherwise
+		// timed-out and disconnected polls would stay parked and be counted and released by a drain
 		result.onCompletion(() -> {
 			logger.debug("Long polling request completed for criteria: {}", criteria);
+			fissureService.unregisterListener(criteria, internalResult);
 		});
 
 		result.onError(throwable -> {
+			fissureService.unregisterListener(criteria, internalResult);
 			if (!(throwable instanceof AsyncRequestNotUsableException) &&
 					!(throwable instanceof ClientAbortException)) {
 				logger.error("Error occurred for long polling request with criteria: {}", criteria, throwable);
@@ -207,21 +268,26 @@ public class FissureController {
 		});
 	}
 
-	private void setTimeoutFallback(DeferredResult<FissureResponse> result, FilterCriteria criteria) {
+	private void setTimeoutFallback(DeferredResult<ResponseEntity<byte[]>> result, FilterCriteria criteria,
+	                                ResponseEncoding encoding) {
 		if (!result.isSetOrExpired()) {
 			try {
-				List<Fissure> currentFissures = fissureService.getFissuresImmediate(criteria);
-				FissureResponse response = createFissureResponse(currentFissures);
-				result.setResult(response);
+				FilteredFissures currentFissures = fissureService.getFilteredFissures(criteria);
+				result.setResult(createEncodedResponse(currentFissures, encoding));
 				logger.info("Main timeout fallback: returning {} fissures", currentFissures.size());
 			} catch (Exception e) {
 				logger.error("Error in main timeout fallback", e);
-				FissureResponse response = new FissureResponse(Collections.emptyList(), Collections.emptySet());
-				result.setResult(response);
+				result.setResult(ResponseEntity.ok()
+						.contentType(encoding.format().getMediaType())
+						.body(payloadEncoder.encodeEmpty(encoding.format())));
 			}
 		}
 	}
 
+	// Negotiated wire format and field projection for one request
+	private record ResponseEncoding(WireFormat format, Set<String> fields) {
+	}
+
 	// Response wrapper to include fissure IDs for next request
 	public static class FissureResponse {
 		private final List<Fissure> fissures;
@@ -251,18 +317,29 @@ public class FissureController {
 		private final int activeListeners;
 		private final int currentFissures;
 		private final long timestamp;
+		private final FilterResultCache.Stats filterCache;
+		private final FissureService.Freshness freshness;
+		private final UpstreamFissureClient.Stats upstream;
 
-		public StatusResponse(String message, int activeListeners, int currentFissures, long timestamp) {
+		public StatusResponse(String message, int activeListeners, int currentFissures, long timestamp,
+		                      FilterResultCache.Stats filterCache, FissureService.Freshness freshness,
+		                      UpstreamFissureClient.Stats upstream) {
 			this.message = message;
 			this.activeListeners = activeListeners;
 			this.currentFissures = currentFissures;
 			this.timestamp = timestamp;
+			this.filterCache = filterCache;
+			this.freshness = freshness;
+			this.upstream = upstream;
 		}
 
 		public String getMessage() { return message; }
 		public int getActiveListeners() { return activeListeners; }
 		public int getCurrentFissures() { return currentFissures; }
 		public long getTimestamp() { return timestamp; }
+		public FilterResultCache.Stats getFilterCache() { return filterCache; }
+		public FissureService.Freshness getFreshness() { return freshness; }
+		public UpstreamFissureClient.Stats getUpstream() { return upstream; }
 	}
 
 	// Exception handlers for client disconnects and async timeouts
@@ -276,6 +353,12 @@ public class FissureController {
 		logger.debug("Client aborted connection: {}", e.getMessage());
 	}
 
+	@ExceptionHandler(ResponseStatusException.class)
+	public ResponseEntity<String> handleResponseStatus(ResponseStatusException e) {
+		logger.debug("Rejected request: {}", e.getReason());
+		return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<String> handleException(Exception e) {
 		logger.error("Unhandled exception in FissureController", e);
@@ -0,0 +1,189 @@
+package me.kiporenko.warframefissureschecker;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes {@link FilteredFissures} into the negotiated {@link WireFormat}, optionally projected
+ * down to a subset of fissure fields. Payloads are cached per snapshot version, so every
+ * (criteria, format, fields) combination is encoded at most once per snapshot.
+ *
+ * <p>The payload cache is bounded. When full, payloads of an older snapshot are evicted first and
+ * never block the current one; among payloads of the same snapshot, a new one is only admitted if
+ * its combination has been requested more often than the least frequently used resident.
+ */
+@Component
+public class FissurePayloadEncoder {
+
+	private static final Logger logger = LoggerFactory.getLogger(FissurePayloadEncoder.class);
+	private static final int MAX_CACHED_PAYLOADS = 512;
+
+	private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+	private final Set<String> fissureFields;
+
+	private final int maxCachedPayloads;
+	private final Map<PayloadKey, byte[]> payloadCache = new ConcurrentHashMap<>();
+	private final FrequencySketch sketch = new FrequencySketch();
+	private volatile long cachedVersion = -1;
+
+	@Autowired
+	public FissurePayloadEncoder(Jackson2ObjectMapperBuilder mapperBuilder) {
+		this(mapperBuilder, MAX_CACHED_PAYLOADS);
+	}
+
+	// All formats come from the one builder Boot configured, so dates and other settings match across encodings
+	FissurePayloadEncoder(Jackson2ObjectMapperBuilder mapperBuilder, int maxCachedPayloads) {
+		this.maxCachedPayloads = maxCachedPayloads;
+		ObjectMapper jsonMapper = mapperBuilder.build();
+		this.mappers.put(WireFormat.JSON, jsonMapper);
+		this.mappers.put(WireFormat.CBOR, mapperBuilder.factory(new CBORFactory()).build());
+		this.mappers.put(WireFormat.SMILE, mapperBuilder.factory(new SmileFactory()).build());
+		this.fissureFields = resolveFissureFields(jsonMapper);
+	}
+
+	/**
+	 * Parses the {@code fields} request parameter into a canonical, sorted projection.
+	 * An empty result means "all fields".
+	 */
+	public Set<String> parseFields(List<String> fields) {
+		if (fields == null || fields.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		Set<String> projection = fields.stream()
+				.flatMap(field -> Arrays.stream(field.split(",")))
+				.map(String::trim)
+				.filter(field -> !field.isEmpty())
+				.collect(Collectors.toCollection(TreeSet::new));
+
+		for (String field : projection) {
+			if (!fissureFields.contains(field)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Unknown fissure field '" + field + "'. Allowed fields: " + fissureFields);
+			}
+		}
+		return Collections.unmodifiableSet(projection);
+	}
+
+	public byte[] encode(FilteredFissures view, WireFormat format, Set<String> fields) {
+		evictOlderVersions(view.getVersion());
+
+		PayloadKey key = new PayloadKey(view.getVersion(), view.getCriteria().getKey(), format, fields);
+		sketch.recordAccess(key.frequencyKey());
+		byte[] cached = payloadCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		byte[] payload = serialize(view, format, fields);
+		admit(key, payload);
+		return payload;
+	}
+
+	// Used on error paths, so it bypasses the payload cache
+	public byte[] encodeEmpty(WireFormat format) {
+		try {
+			return mappers.get(format).writeValueAsBytes(
+					new FissureController.FissureResponse(Collections.emptyList(), Collections.emptySet()));
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException("Failed to encode empty response as " + format, e);
+		}
+	}
+
+	private byte[] serialize(FilteredFissures view, WireFormat format, Set<String> fields) {
+		FissureController.FissureResponse response =
+				new FissureController.FissureResponse(view.getFissures(), view.getFissureIds());
+		ObjectMapper mapper = mappers.get(format);
+
+		try {
+			if (fields.isEmpty()) {
+				return mapper.writeValueAsBytes(response);
+			}
+
+			ObjectNode document = mapper.valueToTree(response);
+			for (JsonNode fissure : document.path("fissures")) {
+				((ObjectNode) fissure).retain(fields);
+			}
+			return mapper.writeValueAsBytes(document);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException("Failed to encode fissures as " + format, e);
+		}
+	}
+
+	private synchronized void admit(PayloadKey key, byte[] payload) {
+		if (payloadCache.containsKey(key)) {
+			return;
+		}
+
+		int candidateFrequency = sketch.frequency(key.frequencyKey());
+		while (payloadCache.size() >= maxCachedPayloads) {
+			// Oldest snapshot first; payloads of a newer snapshot than the candidate are never evicted
+			PayloadKey victim = null;
+			int victimFrequency = Integer.MAX_VALUE;
+			for (PayloadKey resident : payloadCache.keySet()) {
+				if (resident.version > key.version) {
+					continue;
+				}
+				int residentFrequency = sketch.frequency(resident.frequencyKey());
+				if (victim == null || resident.version < victim.version
+						|| (resident.version == victim.version && residentFrequency < victimFrequency)) {
+					victim = resident;
+					victimFrequency = residentFrequency;
+				}
+			}
+			if (victim == null || (victim.version == key.version && victimFrequency >= candidateFrequency)) {
+				return;
+			}
+			payloadCache.remove(victim);
+		}
+		payloadCache.put(key, payload);
+	}
+
+	private void evictOlderVersions(long version) {
+		if (version <= cachedVersion) {
+			return;
+		}
+		synchronized (this) {
+			if (version > cachedVersion) {
+				// Keep the previous version: the next snapshot is encoded before it is published
+				payloadCache.keySet().removeIf(key -> key.version < version - 1);
+				cachedVersion = version;
+				logger.debug("Payload cache advanced to snapshot version {}", version);
+			}
+		}
+	}
+
+	private static Set<String> resolveFissureFields(ObjectMapper mapper) {
+		return mapper.getSerializationConfig()
+				.introspect(mapper.constructType(Fissure.class))
+				.findProperties()
+				.stream()
+				.map(BeanPropertyDefinition::getName)
+				.collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	private record PayloadKey(long version, String criteriaKey, WireFormat format, Set<String> fields) {
+
+		// Popularity is tracked across snapshots, so it leaves the version out
+		String frequencyKey() {
+			return criteriaKey + "|" + format + "|" + fields;
+		}
+	}
+}
@@ -1,13 +1,16 @@
 package me.kiporenko.warframefissureschecker;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.async.DeferredResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 @Service
@@ -15,54 +18,78 @@ public class FissureService {
 
 	private static final Logger logger = LoggerFactory.getLogger(FissureService.class);
 
-	// Thread-safe collections
-	private final List<Fissure> currentFissures = new CopyOnWriteArrayList<>();
+	// Current snapshot is swapped atomically so readers never see a half-applied update
+	private volatile Snapshot snapshot = new Snapshot(0, List.of());
 	private final Map<String, List<ListenerInfo>> listeners = new ConcurrentHashMap<>();
 
-	// Cache for filtered results to avoid repeated filtering
-	private final Map<String, CachedFilterResult> filterCache = new ConcurrentHashMap<>();
+	// Data older than this is reported stale even if the upstream has not reported a failure
+	private static final Duration STALE_AFTER = Duration.ofMinutes(15);
 
-	// Inner class to hold cached filter results
-	private static class CachedFilterResult {
+	// Set by DrainCoordinator, which owns the drain state; here it only stops new listeners from parking
+	private volatile boolean draining;
+
+	// When the snapshot was last refreshed from upstream, and why the latest refresh failed (if it did)
+	private volatile Instant lastRefreshed;
+	private volatile String upstreamFailure;
+
+	// Which listener buckets can see a given fissure, so updates only wake affected buckets
+	private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
+	private static final int FILTER_CACHE_MAX_ENTRIES = 256;
+	private static final long FILTER_CACHE_MAX_WEIGHT = 64 * 1024; // cached fissure references
+
+	// Cache for filtered results to avoid repeated filtering, invalidated by snapshot version
+	private final FilterResultCache filterCache =
+			new FilterResultCache(FILTER_CACHE_MAX_ENTRIES, FILTER_CACHE_MAX_WEIGHT);
+
+	private static final int TRACKED_SUBSCRIPTIONS = 64;
+
+	// Recently requested criteria/encodings, pre-computed for every new snapshot before it is published
+	private final PopularCriteriaTracker popularCriteria = new PopularCriteriaTracker(TRACKED_SUBSCRIPTIONS);
+	private final ForkJoinPool prewarmPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	private final FissurePayloadEncoder payloadEncoder;
+
+	public FissureService(FissurePayloadEncoder payloadEncoder) {
+		this.payloadEncoder = payloadEncoder;
+	}
+
+	// Inner class to hold an immutable, versioned fissure list
+	private static class Snapshot {
+		final long version;
 		final List<Fissure> fissures;
-		final Set<String> fissureIds;
-		final long timestamp;
 
-		CachedFilterResult(List<Fissure> fissures, Set<String> fissureIds) {
-			this.fissures = new ArrayList<>(fissures);
-			this.fissureIds = new HashSet<>(fissureIds);
-			this.timestamp = System.currentTimeMillis();
+		Snapshot(long version, List<Fissure> fissures) {
+			this.version = version;
+			this.fissures = List.copyOf(fissures);
 		}
 	}
 
 	// Inner class to hold listener info with expected data
 	private static class ListenerInfo {
-		final DeferredResult<List<Fissure>> result;
+		final DeferredResult<FilteredFissures> result;
 		final Set<String> expectedFissureIds;
 		final FilterCriteria criteria;
 
-		ListenerInfo(DeferredResult<List<Fissure>> result, Set<String> expectedFissureIds, FilterCriteria criteria) {
+		ListenerInfo(DeferredResult<FilteredFissures> result, Set<String> expectedFissureIds, FilterCriteria criteria) {
 			this.result = result;
 			this.expectedFissureIds = expectedFissureIds != null ? new HashSet<>(expectedFissureIds) : new HashSet<>();
 			this.criteria = criteria;
 		}
 	}
 
-	public void registerListener(FilterCriteria criteria, DeferredResult<List<Fissure>> result) {
+	public void registerListener(FilterCriteria criteria, DeferredResult<FilteredFissures> result) {
 		registerListener(criteria, result, null);
 	}
 
-	public synchronized void registerListener(FilterCriteria criteria, DeferredResult<List<Fissure>> result, Set<String> expectedFissureIds) {
+	public synchronized void registerListener(FilterCriteria criteria, DeferredResult<FilteredFissures> result, Set<String> expectedFissureIds) {
 		logger.info("Registering listener with criteria: {} and expected fissure IDs: {}", criteria, expectedFissureIds);
 
 		// Get current matching fissures (using cache if available)
-		List<Fissure> currentMatching = filterByCriteria(criteria);
-		Set<String> currentIds = currentMatching.stream()
-				.map(Fissure::getId)
-				.collect(Collectors.toSet());
+		FilteredFissures currentMatching = filterByCriteria(criteria);
+		Set<String> currentIds = currentMatching.getFissureIds();
 
-		// If no expected IDs provided (first request) or data has changed, return immediately
-		if (expectedFissureIds == null || !currentIds.equals(expectedFissureIds)) {
+		// If draining, no expected IDs provided (first request) or data has changed, return immediately
+		if (draining || expectedFissureIds == null || !currentIds.equals(expectedFissureIds)) {
 			logger.debug("Data changed or first request. Current IDs: {}, Expected IDs: {}. Immediately returning {} fissures",
 					currentIds, expectedFissureIds, currentMatching.size());
 			result.setResult(currentMatching);
@@ -72,7 +99,10 @@ public class FissureService {
 		// Data hasn't changed, add to listeners for future updates
 		String key = criteria.getKey();
 		ListenerInfo listenerInfo = new ListenerInfo(result, expectedFissureIds, criteria);
-		listeners.computeIfAbsent(key, k -> new ArrayList<>()).add(listenerInfo);
+		listeners.computeIfAbsent(key, k -> {
+			subscriptionIndex.add(criteria);
+			return new ArrayList<>();
+		}).add(listenerInfo);
 		logger.debug("Data unchanged. Added listener to wait for updates. Total listeners for key '{}': {}",
 				key, listeners.get(key).size());
 
@@ -87,7 +117,7 @@ public class FissureService {
 			removeCompletedListener(key, listenerInfo);
 			// On timeout, return current data (even if unchanged)
 			if (!listenerInfo.result.isSetOrExpired()) {
-				List<Fissure> timeoutData = filterByCriteria(criteria);
+				FilteredFissures timeoutData = filterByCriteria(criteria);
 				listenerInfo.result.setResult(timeoutData);
 			}
 		});
@@ -99,50 +129,134 @@ public class FissureService {
 	}
 
 	public List<Fissure> getFissuresImmediate(FilterCriteria criteria) {
+		return getFilteredFissures(criteria).getFissures();
+	}
+
+	public FilteredFissures getFilteredFissures(FilterCriteria criteria) {
 		logger.info("Getting immediate fissures for criteria: {}", criteria);
-		List<Fissure> results = filterByCriteria(criteria);
+		FilteredFissures results = filterByCriteria(criteria);
 		logger.debug("Found {} fissures immediately for criteria: {}", results.size(), criteria);
 		return results;
 	}
 
 	public synchronized void updateFissures(List<Fissure> newFissures) {
+		Snapshot previous = snapshot;
 		logger.info("Updating fissures. New count: {}, Previous count: {}",
-				newFissures.size(), currentFissures.size());
+				newFissures.size(), previous.fissures.size());
+
+		Snapshot next = new Snapshot(previous.version + 1, newFissures);
+
+		// Only buckets whose criteria match an added, removed or re-classified fissure can change
+		FissureChangeSet changes = FissureChangeSet.between(previous.fissures, next.fissures);
+		Set<String> affectedBuckets = subscriptionIndex.affectedBuckets(changes.getChanged());
+		logger.info("Snapshot {} changes: {}. {} of {} listener buckets affected",
+				next.version, changes, affectedBuckets.size(), listeners.size());
+
+		// Every live bucket is pre-warmed, not just the affected ones: unaffected listeners still time out
+		// or re-poll against the new version, and must not filter on a request thread when they do
+		prewarm(next, listeners.keySet()).forEach(filterCache::put);
 
-		// Update fissure list
-		currentFissures.clear();
-		currentFissures.addAll(newFissures);
+		// Publish the new fissure list under the next snapshot version
+		snapshot = next;
+		lastRefreshed = Instant.now();
+		upstreamFailure = null;
 
-		// Clear filter cache since data changed
-		filterCache.clear();
+		// Views built from the previous snapshot can never be served again
+		filterCache.invalidateBefore(next.version);
+		popularCriteria.decay();
+
+		notifyListeners(affectedBuckets);
+	}
+
+	// Keeps serving the last good snapshot, but flags it as stale
+	public void markUpstreamFailure(String reason) {
+		upstreamFailure = reason;
+	}
 
-		notifyListeners();
+	public Freshness getFreshness() {
+		Instant refreshed = lastRefreshed;
+		String failure = upstreamFailure;
+		boolean stale = refreshed == null
+				|| failure != null
+				|| refreshed.plus(STALE_AFTER).isBefore(Instant.now());
+		return new Freshness(refreshed, stale, failure);
 	}
 
-	private void notifyListeners() {
-		if (listeners.isEmpty()) {
+	public void recordRequest(FilterCriteria criteria, WireFormat format, Set<String> fields) {
+		popularCriteria.record(criteria, format, fields);
+	}
+
+	// Filters the unpublished snapshot for every listener bucket and popular subscription in parallel,
+	// and encodes the popular payloads, so requests after the publish only hit caches
+	private List<FilteredFissures> prewarm(Snapshot next, Set<String> liveBuckets) {
+		Map<String, FilterCriteria> criteriaByKey = new HashMap<>();
+		Map<String, List<PopularCriteriaTracker.Subscription>> encodingsByKey = new HashMap<>();
+
+		for (String key : liveBuckets) {
+			List<ListenerInfo> bucket = listeners.get(key);
+			if (bucket != null && !bucket.isEmpty()) {
+				criteriaByKey.putIfAbsent(key, bucket.get(0).criteria);
+			}
+		}
+		for (PopularCriteriaTracker.Subscription subscription : popularCriteria.top()) {
+			String key = subscription.criteria().getKey();
+			criteriaByKey.putIfAbsent(key, subscription.criteria());
+			encodingsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(subscription);
+		}
+
+		if (criteriaByKey.isEmpty()) {
+			return List.of();
+		}
+
+		long start = System.nanoTime();
+		try {
+			List<FilteredFissures> views = prewarmPool.submit(() -> criteriaByKey.values().parallelStream()
+					.map(criteria -> {
+						FilteredFissures view = filter(next, criteria);
+						for (PopularCriteriaTracker.Subscription subscription :
+								encodingsByKey.getOrDefault(criteria.getKey(), List.of())) {
+							payloadEncoder.encode(view, subscription.format(), subscription.fields());
+						}
+						return view;
+					})
+					.toList()).join();
+
+			logger.info("Pre-computed {} filtered views for snapshot {} in {} ms",
+					views.size(), next.version, (System.nanoTime() - start) / 1_000_000);
+			return views;
+		} catch (RuntimeException e) {
+			// Publishing must not fail because of pre-warming; requests fall back to filtering on demand
+			logger.warn("Pre-warming snapshot {} failed, publishing without it", next.version, e);
+			return List.of();
+		}
+	}
+
+	@PreDestroy
+	public void shutdownPrewarmPool() {
+		prewarmPool.shutdown();
+	}
+
+	private void notifyListeners(Set<String> affectedBuckets) {
+		if (listeners.isEmpty() || affectedBuckets.isEmpty()) {
 			return;
 		}
 
 		int totalNotified = 0;
-		Iterator<Map.Entry<String, List<ListenerInfo>>> entryIterator = listeners.entrySet().iterator();
-
-		while (entryIterator.hasNext()) {
-			Map.Entry<String, List<ListenerInfo>> entry = entryIterator.next();
-			String criteriaKey = entry.getKey();
-			List<ListenerInfo> listenerInfos = entry.getValue();
 
+		for (String criteriaKey : affectedBuckets) {
+			List<ListenerInfo> listenerInfos = listeners.get(criteriaKey);
+			if (listenerInfos == null) {
+				continue;
+			}
 			if (listenerInfos.isEmpty()) {
-				entryIterator.remove();
+				removeBucket(criteriaKey);
 				continue;
 			}
 
 			// Use the first listener's criteria (they should all be the same for the same key)
 			FilterCriteria criteria = listenerInfos.get(0).criteria;
-			List<Fissure> matching = filterByCriteria(criteria);
-			Set<String> currentIds = matching.stream()
-					.map(Fissure::getId)
-					.collect(Collectors.toSet());
+			FilteredFissures matching = filterByCriteria(criteria);
+			Set<String> currentIds = matching.getFissureIds();
 
 			logger.debug("Checking {} listeners for criteria key: {}. Current IDs: {}",
 					listenerInfos.size(), criteriaKey, currentIds);
@@ -168,7 +282,7 @@ public class FissureService {
 
 			// Remove the entry if no listeners remain
 			if (listenerInfos.isEmpty()) {
-				entryIterator.remove();
+				removeBucket(criteriaKey);
 			}
 		}
 
@@ -176,41 +290,102 @@ public class FissureService {
 				totalNotified, getTotalListenerCount());
 	}
 
-	private void removeCompletedListener(String key, ListenerInfo listenerInfo) {
+	/**
+	 * Stops parking new listeners; they are answered immediately from now on.
+	 * Returns the number of listeners still parked.
+	 */
+	public synchronized int beginDrain() {
+		draining = true;
+		int parked = getTotalListenerCount();
+		logger.info("Draining started with {} parked listeners", parked);
+		return parked;
+	}
+
+	/**
+	 * Answers up to {@code max} parked listeners with their current data and removes them.
+	 * Returns how many were released.
+	 */
+	public synchronized int releaseListeners(int max) {
+		int released = 0;
+		for (String key : new ArrayList<>(listeners.keySet())) {
+			if (released >= max) {
+				break;
+			}
+			List<ListenerInfo> bucket = listeners.get(key);
+			if (bucket == null) {
+				continue;
+			}
+			if (!bucket.isEmpty()) {
+				FilteredFissures current = filterByCriteria(bucket.get(0).criteria);
+				while (!bucket.isEmpty() && released < max) {
+					ListenerInfo listenerInfo = bucket.remove(bucket.size() - 1);
+					if (!listenerInfo.result.isSetOrExpired()) {
+						listenerInfo.result.setResult(current);
+					}
+					released++;
+				}
+			}
+			if (bucket.isEmpty()) {
+				removeBucket(key);
+			}
+		}
+		return released;
+	}
+
+	/**
+	 * Removes a parked listener whose request is gone, e.g. timed out or disconnected. For results that
+	 * are never handed to Spring MVC their own completion callbacks do not fire, so callers must do this.
+	 */
+	public synchronized void unregisterListener(FilterCriteria criteria, DeferredResult<FilteredFissures> result) {
+		String key = criteria.getKey();
+		List<ListenerInfo> bucket = listeners.get(key);
+		if (bucket == null) {
+			return;
+		}
+		bucket.removeIf(listenerInfo -> listenerInfo.result == result);
+		if (bucket.isEmpty()) {
+			removeBucket(key);
+		}
+	}
+
+	private synchronized void removeCompletedListener(String key, ListenerInfo listenerInfo) {
 		List<ListenerInfo> listenerList = listeners.get(key);
 		if (listenerList != null) {
 			listenerList.remove(listenerInfo);
 			if (listenerList.isEmpty()) {
-				listeners.remove(key);
+				removeBucket(key);
 			}
 		}
 	}
 
-	private List<Fissure> filterByCriteria(FilterCriteria criteria) {
-		String cacheKey = criteria.getKey();
+	private void removeBucket(String key) {
+		listeners.remove(key);
+		subscriptionIndex.remove(key);
+	}
 
-		// Check cache first
-		CachedFilterResult cached = filterCache.get(cacheKey);
+	private FilteredFissures filterByCriteria(FilterCriteria criteria) {
+		Snapshot current = snapshot;
+
+		// Check cache first; hits share the immutable view without copying
+		FilteredFissures cached = filterCache.get(criteria, current.version);
 		if (cached != null) {
-			// Cache is valid for a short time to avoid repeated filtering
-			if (System.currentTimeMillis() - cached.timestamp < 1000) { // 1 second cache
-				return new ArrayList<>(cached.fissures);
-			}
+			return cached;
 		}
 
 		// Filter and cache result
-		List<Fissure> filtered = currentFissures.stream()
+		FilteredFissures view = filter(current, criteria);
+		filterCache.put(view);
+
+		return view;
+	}
+
+	private FilteredFissures filter(Snapshot source, FilterCriteria criteria) {
+		List<Fissure> filtered = source.fissures.stream()
 				.filter(fissure -> matchesMissionTypes(fissure, criteria.getMissionTypes()))
 				.filter(fissure -> matchesHardMode(fissure, criteria.getIsHard()))
 				.collect(Collectors.toList());
 
-		Set<String> filteredIds = filtered.stream()
-				.map(Fissure::getId)
-				.collect(Collectors.toSet());
-
-		filterCache.put(cacheKey, new CachedFilterResult(filtered, filteredIds));
-
-		return filtered;
+		return new FilteredFissures(source.version, criteria, filtered);
 	}
 
 	private boolean matchesMissionTypes(Fissure fissure, List<String> types) {
@@ -229,7 +404,11 @@ public class FissureService {
 
 	// Utility methods
 	public List<Fissure> getCurrentFissures() {
-		return new ArrayList<>(currentFissures);
+		return snapshot.fissures;
+	}
+
+	public long getSnapshotVersion() {
+		return snapshot.version;
 	}
 
 	public int getActiveListenerCount() {
@@ -243,14 +422,27 @@ public class FissureService {
 	}
 
 	public Set<String> getCurrentFissureIds(FilterCriteria criteria) {
-		return filterByCriteria(criteria).stream()
-				.map(Fissure::getId)
-				.collect(Collectors.toSet());
+		return filterByCriteria(criteria).getFissureIds();
+	}
+
+	public FilterResultCache.Stats getFilterCacheStats() {
+		return filterCache.getStats();
 	}
 
-	// Clean up expired cache entries periodically (could be called by a scheduled task)
-	public void cleanupCache() {
-		long cutoff = System.currentTimeMillis() - 60000; // Remove entries older than 1 minute
-		filterCache.entrySet().removeIf(entry -> entry.getValue().timestamp < cutoff);
+	// How current the served snapshot is
+	public static class Freshness {
+		private final Instant lastRefreshed;
+		private final boolean stale;
+		private final String reason;
+
+		public Freshness(Instant lastRefreshed, boolean stale, String reason) {
+			this.lastRefreshed = lastRefreshed;
+			this.stale = stale;
+			this.reason = reason;
+		}
+
+		public Instant getLastRefreshed() { return lastRefreshed; }
+		public boolean isStale() { return stale; }
+		public String getReason() { return reason; }
 	}
-}
\ No newline at end of file
+}
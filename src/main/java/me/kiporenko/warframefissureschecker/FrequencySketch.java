@@ -0,0 +1,48 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate, bounded request-frequency counter used for cache admission.
+ *
+ * <p>Keys hash into a fixed number of 4-bit-range counters that saturate at 15. After every
+ * {@code 10 * size} recorded accesses all counters are halved, so old popularity fades.
+ */
+class FrequencySketch {
+
+	private static final int SKETCH_SIZE = 4096; // power of two
+	private static final int SKETCH_MAX = 15;
+
+	private final AtomicLongArray counters = new AtomicLongArray(SKETCH_SIZE);
+	private final AtomicInteger additions = new AtomicInteger();
+
+	void recordAccess(String key) {
+		int slot = slot(key);
+		long current;
+		do {
+			current = counters.get(slot);
+			if (current >= SKETCH_MAX) {
+				break;
+			}
+		} while (!counters.compareAndSet(slot, current, current + 1));
+
+		// Age the sketch so frequencies reflect recent traffic
+		if (additions.incrementAndGet() >= SKETCH_SIZE * 10) {
+			additions.set(0);
+			for (int i = 0; i < SKETCH_SIZE; i++) {
+				counters.set(i, counters.get(i) >> 1);
+			}
+		}
+	}
+
+	int frequency(String key) {
+		return (int) counters.get(slot(key));
+	}
+
+	private static int slot(String key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return hash & (SKETCH_SIZE - 1);
+	}
+}
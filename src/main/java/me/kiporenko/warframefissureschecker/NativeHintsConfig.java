@@ -0,0 +1,23 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reflection hints for types Jackson binds outside of controller return types, which AOT processing
+ * cannot discover on its own: {@link Fissure} is read by the upstream {@code WebClient} and
+ * introspected by {@link FissurePayloadEncoder}, and the response wrappers are serialized by the
+ * encoder rather than by Spring MVC.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+		Fissure.class,
+		FissureController.FissureResponse.class,
+		FissureController.StatusResponse.class,
+		FilterResultCache.Stats.class,
+		FissureService.Freshness.class,
+		UpstreamFissureClient.Stats.class,
+		DrainCoordinator.Progress.class
+})
+public class NativeHintsConfig {
+}
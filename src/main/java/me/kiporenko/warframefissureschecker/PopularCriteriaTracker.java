@@ -0,0 +1,65 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks which (criteria, format, fields) combinations clients requested recently, so a new snapshot
+ * can be pre-computed for them before it is published. The set is bounded: once it grows past twice
+ * its capacity only the most requested half is kept, and counts are halved on every snapshot so
+ * popularity reflects recent traffic.
+ */
+public class PopularCriteriaTracker {
+
+	private final int capacity;
+	private final Map<Subscription, AtomicLong> counts = new ConcurrentHashMap<>();
+
+	/**
+	 * One way clients read fissures: which filter, in which wire format, projected to which fields.
+	 */
+	public record Subscription(FilterCriteria criteria, WireFormat format, Set<String> fields) {
+	}
+
+	public PopularCriteriaTracker(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public void record(FilterCriteria criteria, WireFormat format, Set<String> fields) {
+		counts.computeIfAbsent(new Subscription(criteria, format, fields), k -> new AtomicLong())
+				.incrementAndGet();
+
+		if (counts.size() > capacity * 2) {
+			prune();
+		}
+	}
+
+	/**
+	 * Returns up to {@code capacity} subscriptions, most requested first.
+	 */
+	public List<Subscription> top() {
+		return counts.entrySet().stream()
+				.sorted(Map.Entry.<Subscription, AtomicLong>comparingByValue(
+						Comparator.comparingLong(AtomicLong::get)).reversed())
+				.limit(capacity)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+
+	// Called once per snapshot so criteria nobody asks for anymore fall out of the list
+	public void decay() {
+		counts.values().forEach(count -> count.updateAndGet(value -> value >> 1));
+		counts.values().removeIf(count -> count.get() == 0);
+	}
+
+	private synchronized void prune() {
+		if (counts.size() <= capacity * 2) {
+			return;
+		}
+		Set<Subscription> keep = Set.copyOf(top());
+		counts.keySet().retainAll(keep);
+	}
+}
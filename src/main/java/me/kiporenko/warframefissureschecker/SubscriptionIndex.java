@@ -0,0 +1,87 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from fissure attribute values to the listener buckets whose criteria accept them.
+ *
+ * <p>Each bucket is indexed under every (mission type, hard mode) pair its criteria accept, with
+ * {@code null} standing for "any". A fissure therefore finds all buckets it matches with four
+ * lookups, independent of the number of distinct subscriptions. Not thread-safe; the owner
+ * synchronizes access.
+ */
+public class SubscriptionIndex {
+
+	private record Slot(String missionType, Boolean isHard) {
+	}
+
+	private final Map<Slot, Set<String>> bucketsBySlot = new HashMap<>();
+	private final Map<String, List<Slot>> slotsByBucket = new HashMap<>();
+
+	public void add(FilterCriteria criteria) {
+		List<Slot> slots = slotsFor(criteria);
+		if (slotsByBucket.putIfAbsent(criteria.getKey(), slots) != null) {
+			return;
+		}
+		for (Slot slot : slots) {
+			bucketsBySlot.computeIfAbsent(slot, k -> new HashSet<>()).add(criteria.getKey());
+		}
+	}
+
+	public void remove(String bucketKey) {
+		List<Slot> slots = slotsByBucket.remove(bucketKey);
+		if (slots == null) {
+			return;
+		}
+		for (Slot slot : slots) {
+			Set<String> buckets = bucketsBySlot.get(slot);
+			if (buckets != null) {
+				buckets.remove(bucketKey);
+				if (buckets.isEmpty()) {
+					bucketsBySlot.remove(slot);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the keys of all buckets whose criteria match at least one of the given fissures.
+	 */
+	public Set<String> affectedBuckets(List<Fissure> fissures) {
+		Set<String> affected = new HashSet<>();
+		for (Fissure fissure : fissures) {
+			String missionType = normalize(fissure.getMissionType());
+			collect(affected, new Slot(missionType, fissure.isHard()));
+			collect(affected, new Slot(missionType, null));
+			collect(affected, new Slot(null, fissure.isHard()));
+			collect(affected, new Slot(null, null));
+		}
+		return affected;
+	}
+
+	private void collect(Set<String> affected, Slot slot) {
+		Set<String> buckets = bucketsBySlot.get(slot);
+		if (buckets != null) {
+			affected.addAll(buckets);
+		}
+	}
+
+	private static List<Slot> slotsFor(FilterCriteria criteria) {
+		if (!criteria.hasMissionTypeFilter()) {
+			return List.of(new Slot(null, criteria.getIsHard()));
+		}
+		// Criteria mission types are already trimmed and lower-cased
+		return criteria.getMissionTypes().stream()
+				.map(type -> new Slot(type, criteria.getIsHard()))
+				.toList();
+	}
+
+	private static String normalize(String missionType) {
+		return missionType == null ? "" : missionType.toLowerCase(Locale.ROOT);
+	}
+}
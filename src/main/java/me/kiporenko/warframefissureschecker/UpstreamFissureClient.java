@@ -0,0 +1,205 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches fissures from the Warframe API, optionally across several mirror base URLs.
+ *
+ * <p>Each fetch sends one request and, if it has not answered within the recent p95 latency (or
+ * failed earlier), a hedged request to the next mirror; the first successful answer wins. A failed
+ * request is only hedged to a different mirror, so with a single mirror only latency triggers a
+ * hedge. A circuit breaker stops calling the upstream after repeated failures so a degraded upstream
+ * does not cost every scheduled tick its full timeout.
+ */
+@Component
+public class UpstreamFissureClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(UpstreamFissureClient.class);
+	private static final Duration MIN_HEDGE_DELAY = Duration.ofMillis(50);
+	private static final int MIN_LATENCY_SAMPLES = 10;
+
+	private final List<WebClient> mirrors;
+	private final List<String> baseUrls;
+	private final Duration attemptTimeout;
+	private final CircuitBreaker circuitBreaker;
+	private final LatencyTracker latencies = new LatencyTracker(128);
+	private final AtomicInteger nextMirror = new AtomicInteger();
+
+	@Autowired
+	public UpstreamFissureClient(
+			@Value("${fissures.upstream.base-urls:https://api.warframestat.us/pc}") String baseUrls,
+			@Value("${fissures.upstream.timeout:10s}") Duration attemptTimeout,
+			@Value("${fissures.upstream.failure-threshold:3}") int failureThreshold,
+			@Value("${fissures.upstream.open-duration:6m}") Duration openDuration,
+			@Value("${fissures.upstream.max-open-duration:30m}") Duration maxOpenDuration) {
+		this(Arrays.stream(baseUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList(),
+				attemptTimeout, new CircuitBreaker(failureThreshold, openDuration, maxOpenDuration));
+	}
+
+	public UpstreamFissureClient(List<String> baseUrls, Duration attemptTimeout, CircuitBreaker circuitBreaker) {
+		if (baseUrls.isEmpty()) {
+			throw new IllegalArgumentException("At least one upstream base URL is required");
+		}
+		this.baseUrls = List.copyOf(baseUrls);
+		this.attemptTimeout = attemptTimeout;
+		this.circuitBreaker = circuitBreaker;
+		this.mirrors = this.baseUrls.stream()
+				.map(url -> WebClient.builder()
+						.baseUrl(url)
+						.codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024)) // 1MB buffer
+						.build())
+				.toList();
+	}
+
+	public Mono<List<Fissure>> fetchFissures() {
+		return Mono.defer(() -> {
+			if (!circuitBreaker.tryAcquire()) {
+				return Mono.error(new UpstreamUnavailableException(
+						"Circuit open after " + circuitBreaker.getConsecutiveFailures() + " consecutive failures"));
+			}
+			return hedgedFetch()
+					.doOnSuccess(fissures -> circuitBreaker.recordSuccess())
+					.doOnError(error -> circuitBreaker.recordFailure())
+					.doFinally(signal -> {
+						// e.g. a block(timeout) expiring or disposal on shutdown
+						if (signal == SignalType.CANCEL) {
+							circuitBreaker.recordCancellation();
+						}
+					});
+		});
+	}
+
+	private Mono<List<Fissure>> hedgedFetch() {
+		int primaryIndex = Math.floorMod(nextMirror.getAndIncrement(), mirrors.size());
+		int hedgeIndex = (primaryIndex + 1) % mirrors.size();
+		Duration hedgeDelay = getHedgeDelay();
+
+		Mono<List<Fissure>> primary = attempt(primaryIndex).cache();
+
+		// Hedge once the primary is slower than usual, or right away if it already failed, but never
+		// send a failed request straight back to the host that just failed it
+		boolean hedgeOnFailure = hedgeIndex != primaryIndex;
+		Mono<Boolean> hedgeTrigger = Mono.firstWithSignal(
+				Mono.delay(hedgeDelay).thenReturn(true),
+				primary.then(Mono.<Boolean>empty()).onErrorReturn(hedgeOnFailure));
+		Mono<List<Fissure>> hedge = hedgeTrigger
+				.filter(Boolean::booleanValue)
+				.flatMap(trigger -> {
+					logger.debug("Sending hedged request to {} after {} ms", baseUrls.get(hedgeIndex), hedgeDelay.toMillis());
+					return attempt(hedgeIndex);
+				});
+
+		return Mono.firstWithValue(primary, hedge)
+				.onErrorMap(error -> new UpstreamUnavailableException("All upstream attempts failed", error));
+	}
+
+	private Mono<List<Fissure>> attempt(int mirrorIndex) {
+		String baseUrl = baseUrls.get(mirrorIndex);
+		return mirrors.get(mirrorIndex).get()
+				.uri("/fissures/")
+				.retrieve()
+				.bodyToFlux(Fissure.class)
+				.collectList()
+				.timeout(attemptTimeout)
+				.elapsed()
+				.doOnNext(timed -> latencies.record(timed.getT1()))
+				.map(timed -> timed.getT2())
+				.doOnError(error -> logger.warn("Upstream request to {} failed: {}", baseUrl, error.toString()));
+	}
+
+	public Duration getHedgeDelay() {
+		if (latencies.size() < MIN_LATENCY_SAMPLES) {
+			return attemptTimeout.dividedBy(4);
+		}
+		Duration p95 = Duration.ofMillis(latencies.percentile(0.95));
+		if (p95.compareTo(MIN_HEDGE_DELAY) < 0) {
+			return MIN_HEDGE_DELAY;
+		}
+		return p95.compareTo(attemptTimeout) > 0 ? attemptTimeout : p95;
+	}
+
+	public Stats getStats() {
+		return new Stats(baseUrls, circuitBreaker.getState().name(), circuitBreaker.getConsecutiveFailures(),
+				latencies.percentile(0.5), latencies.percentile(0.95), getHedgeDelay().toMillis());
+	}
+
+	public static class UpstreamUnavailableException extends RuntimeException {
+		public UpstreamUnavailableException(String message) {
+			super(message);
+		}
+
+		public UpstreamUnavailableException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+
+	// Fixed-size ring buffer of recent successful request latencies in milliseconds
+	private static class LatencyTracker {
+		private final long[] samples;
+		private int next;
+		private int count;
+
+		LatencyTracker(int capacity) {
+			this.samples = new long[capacity];
+		}
+
+		synchronized void record(long millis) {
+			samples[next] = millis;
+			next = (next + 1) % samples.length;
+			count = Math.min(count + 1, samples.length);
+		}
+
+		synchronized int size() {
+			return count;
+		}
+
+		synchronized long percentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long[] sorted = Arrays.copyOf(samples, count);
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(percentile * count) - 1;
+			return sorted[Math.max(0, Math.min(index, count - 1))];
+		}
+	}
+
+	// Upstream statistics for monitoring
+	public static class Stats {
+		private final List<String> baseUrls;
+		private final String circuitState;
+		private final int consecutiveFailures;
+		private final long p50LatencyMs;
+		private final long p95LatencyMs;
+		private final long hedgeDelayMs;
+
+		public Stats(List<String> baseUrls, String circuitState, int consecutiveFailures,
+		             long p50LatencyMs, long p95LatencyMs, long hedgeDelayMs) {
+			this.baseUrls = baseUrls;
+			this.circuitState = circuitState;
+			this.consecutiveFailures = consecutiveFailures;
+			this.p50LatencyMs = p50LatencyMs;
+			this.p95LatencyMs = p95LatencyMs;
+			this.hedgeDelayMs = hedgeDelayMs;
+		}
+
+		public List<String> getBaseUrls() { return baseUrls; }
+		public String getCircuitState() { return circuitState; }
+		public int getConsecutiveFailures() { return consecutiveFailures; }
+		public long getP50LatencyMs() { return p50LatencyMs; }
+		public long getP95LatencyMs() { return p95LatencyMs; }
+		public long getHedgeDelayMs() { return hedgeDelayMs; }
+	}
+}
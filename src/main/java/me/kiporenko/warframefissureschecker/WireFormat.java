@@ -0,0 +1,67 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodings a client can negotiate through the {@code Accept} header.
+ * JSON stays the default; CBOR and Smile are compact binary encodings of the same document.
+ */
+public enum WireFormat {
+	JSON(MediaType.APPLICATION_JSON),
+	CBOR(MediaType.parseMediaType("application/cbor")),
+	SMILE(MediaType.parseMediaType("application/x-jackson-smile"));
+
+	private final MediaType mediaType;
+
+	WireFormat(MediaType mediaType) {
+		this.mediaType = mediaType;
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * Picks the format for an {@code Accept} header value, honouring quality factors.
+	 * A missing header or a wildcard resolves to JSON.
+	 */
+	public static WireFormat fromAcceptHeader(String accept) {
+		if (accept == null || accept.isBlank()) {
+			return JSON;
+		}
+
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Accept header: " + accept);
+		}
+
+		// Highest quality first; on a tie concrete types win over wildcards
+		List<MediaType> byPreference = accepted.stream()
+				.sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+						.thenComparing(MediaType::isWildcardType)
+						.thenComparing(MediaType::isWildcardSubtype))
+				.toList();
+
+		for (MediaType requested : byPreference) {
+			if (requested.getQualityValue() == 0) {
+				continue;
+			}
+			for (WireFormat format : values()) {
+				if (requested.includes(format.mediaType)) {
+					return format;
+				}
+			}
+		}
+
+		throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+				"Supported media types: application/json, application/cbor, application/x-jackson-smile");
+	}
+}
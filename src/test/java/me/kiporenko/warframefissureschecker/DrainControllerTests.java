@@ -0,0 +1,67 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DrainControllerTests {
+
+	private final FissureService fissureService =
+			new FissureService(new FissurePayloadEncoder(new Jackson2ObjectMapperBuilder()));
+	private final DrainCoordinator drainCoordinator = new DrainCoordinator(fissureService,
+			Duration.ofSeconds(1), Duration.ofMillis(100), Duration.ofSeconds(1));
+
+	@AfterEach
+	void shutdown() {
+		fissureService.shutdownPrewarmPool();
+	}
+
+	@Test
+	void loopbackCallersWithoutTheTokenCannotDrain() throws Exception {
+		MockMvc mockMvc = mockMvc("s3cret");
+
+		// MockMvc requests come from 127.0.0.1, like everything behind a local proxy
+		mockMvc.perform(post("/admin/drain")).andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/admin/drain").header(HttpHeaders.AUTHORIZATION, "Bearer wrong"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/admin/drain")).andExpect(status().isUnauthorized());
+
+		assertThat(drainCoordinator.isDraining()).isFalse();
+	}
+
+	@Test
+	void configuredTokenStartsTheDrain() throws Exception {
+		MockMvc mockMvc = mockMvc("s3cret");
+
+		mockMvc.perform(post("/admin/drain").header(HttpHeaders.AUTHORIZATION, "Bearer s3cret"))
+				.andExpect(status().isAccepted());
+		mockMvc.perform(get("/admin/drain").header(HttpHeaders.AUTHORIZATION, "Bearer s3cret"))
+				.andExpect(status().isOk());
+
+		assertThat(drainCoordinator.isDraining()).isTrue();
+	}
+
+	@Test
+	void endpointIsDisabledWithoutAConfiguredToken() throws Exception {
+		MockMvc mockMvc = mockMvc("");
+
+		mockMvc.perform(post("/admin/drain").header(HttpHeaders.AUTHORIZATION, "Bearer "))
+				.andExpect(status().isForbidden());
+
+		assertThat(drainCoordinator.isDraining()).isFalse();
+	}
+
+	private MockMvc mockMvc(String token) {
+		return MockMvcBuilders.standaloneSetup(new DrainController(drainCoordinator, token)).build();
+	}
+}
@@ -0,0 +1,197 @@
+package me.kiporenko.warframefissureschecker;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static me.kiporenko.warframefissureschecker.TestFissures.fissure;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DrainCoordinatorTests {
+
+	private static final Duration DEADLINE = Duration.ofMillis(1000);
+	private static final Duration INTERVAL = Duration.ofMillis(100);
+	private static final Duration RECONNECT_SPREAD = Duration.ofSeconds(2);
+
+	private final FissureService fissureService =
+			new FissureService(new FissurePayloadEncoder(new Jackson2ObjectMapperBuilder()));
+	private final DrainCoordinator drainCoordinator =
+			new DrainCoordinator(fissureService, DEADLINE, INTERVAL, RECONNECT_SPREAD);
+	private final FissureController controller = new FissureController(fissureService,
+			new FissurePayloadEncoder(new Jackson2ObjectMapperBuilder()),
+			new UpstreamFissureClient(List.of("http://127.0.0.1:1"), Duration.ofSeconds(1),
+					new CircuitBreaker(1, Duration.ofMinutes(1))),
+			drainCoordinator);
+
+	private final FilterCriteria criteria = new FilterCriteria(null, null);
+	private final Set<String> currentIds = Set.of("f1", "f2");
+	private final Map<DeferredResult<FilteredFissures>, Long> releasedAt = new ConcurrentHashMap<>();
+
+	DrainCoordinatorTests() {
+		fissureService.updateFissures(List.of(fissure("f1", "Defense", false), fissure("f2", "Capture", true)));
+	}
+
+	@AfterEach
+	void shutdown() {
+		fissureService.shutdownPrewarmPool();
+	}
+
+	@Test
+	void releasesEveryParkedListenerByTheDeadline() throws InterruptedException {
+		List<DeferredResult<FilteredFissures>> parked = park(20);
+		assertThat(fissureService.getActiveListenerCount()).isEqualTo(20);
+
+		long start = System.nanoTime();
+		drainCoordinator.startDrain();
+		awaitCompletion(DEADLINE.plus(INTERVAL.multipliedBy(2)));
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(DEADLINE.plus(INTERVAL.multipliedBy(2)));
+		assertThat(parked).allMatch(DeferredResult::hasResult);
+		assertThat(fissureService.getActiveListenerCount()).isZero();
+		DrainCoordinator.Progress progress = drainCoordinator.getProgress();
+		assertThat(progress.isCompleted()).isTrue();
+		assertThat(progress.getInitialListeners()).isEqualTo(20);
+		assertThat(progress.getReleasedListeners()).isEqualTo(20);
+	}
+
+	@Test
+	void releasesInBatchesSpreadOverTheDeadline() throws InterruptedException {
+		park(20);
+
+		drainCoordinator.startDrain();
+		awaitCompletion(DEADLINE.plus(INTERVAL.multipliedBy(2)));
+
+		// 20 listeners over 10 intervals: released a couple at a time, not in one burst
+		long first = releasedAt.values().stream().mapToLong(Long::longValue).min().orElseThrow();
+		long last = releasedAt.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+		assertThat(releasedAt).hasSize(20);
+		assertThat(Duration.ofNanos(last - first)).isGreaterThan(DEADLINE.dividedBy(2));
+		assertThat(releasedAt.values().stream().filter(time -> time - first < INTERVAL.toNanos() / 2).count())
+				.isLessThan(20 / 2);
+	}
+
+	@Test
+	void newPollsAreAnsweredImmediatelyWhileDraining() {
+		drainCoordinator.startDrain();
+
+		DeferredResult<FilteredFissures> result = new DeferredResult<>();
+		fissureService.registerListener(criteria, result, currentIds);
+
+		assertThat(result.hasResult()).isTrue();
+		assertThat(fissureService.getActiveListenerCount()).isZero();
+	}
+
+	@Test
+	void responsesCarryAReconnectHintOnlyWhileDraining() {
+		HttpHeaders before = controller.getFissuresImmediate(null, null, null, null).getHeaders();
+		assertThat(before.containsKey("X-Fissures-Reconnect-After-Ms")).isFalse();
+		assertThat(drainCoordinator.reconnectDelayMillis()).isEqualTo(-1);
+
+		drainCoordinator.startDrain();
+		DeferredResult<ResponseEntity<byte[]>> poll = controller.getFissures(null, null, "f1,f2", null, null);
+
+		assertThat(poll.hasResult()).isTrue();
+		HttpHeaders headers = ((ResponseEntity<?>) poll.getResult()).getHeaders();
+		assertThat(Long.parseLong(headers.getFirst("X-Fissures-Reconnect-After-Ms")))
+				.isBetween(0L, RECONNECT_SPREAD.toMillis());
+		assertThat(headers.getConnection()).containsExactly("close");
+	}
+
+	@Test
+	void drainOnlyCountsAndReleasesPollsThatAreStillConnected() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+		List<MvcResult> polls = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			polls.add(mockMvc.perform(get("/fissures").param("knownIds", "f1,f2"))
+					.andExpect(request().asyncStarted())
+					.andReturn());
+		}
+		assertThat(fissureService.getActiveListenerCount()).isEqualTo(4);
+
+		// One poll times out and one client disconnects before the drain starts
+		endAsync(polls.get(0), listener -> listener.onTimeout(new AsyncEvent(asyncContext(polls.get(0)))));
+		endAsync(polls.get(1), listener -> listener.onError(
+				new AsyncEvent(asyncContext(polls.get(1)), new IOException("Broken pipe"))));
+		assertThat(fissureService.getActiveListenerCount()).isEqualTo(2);
+
+		drainCoordinator.startDrain();
+		awaitCompletion(DEADLINE.plus(INTERVAL.multipliedBy(2)));
+
+		DrainCoordinator.Progress progress = drainCoordinator.getProgress();
+		assertThat(progress.getInitialListeners()).isEqualTo(2);
+		assertThat(progress.getReleasedListeners()).isEqualTo(2);
+		for (MvcResult poll : polls.subList(2, 4)) {
+			mockMvc.perform(asyncDispatch(poll))
+					.andExpect(status().isOk())
+					.andExpect(header().exists("X-Fissures-Reconnect-After-Ms"));
+		}
+	}
+
+	@Test
+	void stopBlocksUntilParkedListenersAreReleased() {
+		drainCoordinator.start();
+		List<DeferredResult<FilteredFissures>> parked = park(5);
+
+		drainCoordinator.stop();
+
+		assertThat(parked).allMatch(DeferredResult::hasResult);
+		assertThat(drainCoordinator.isRunning()).isFalse();
+		assertThat(drainCoordinator.getProgress().isCompleted()).isTrue();
+	}
+
+	private List<DeferredResult<FilteredFissures>> park(int count) {
+		List<DeferredResult<FilteredFissures>> parked = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			DeferredResult<FilteredFissures> result = new DeferredResult<>();
+			result.setResultHandler(value -> releasedAt.put(result, System.nanoTime()));
+			fissureService.registerListener(criteria, result, currentIds);
+			parked.add(result);
+		}
+		return parked;
+	}
+
+	private static MockAsyncContext asyncContext(MvcResult poll) {
+		return (MockAsyncContext) poll.getRequest().getAsyncContext();
+	}
+
+	// Fires the container's async event the way a servlet container would, followed by completion
+	private static void endAsync(MvcResult poll, AsyncEventSender event) throws IOException {
+		for (AsyncListener listener : asyncContext(poll).getListeners()) {
+			event.send(listener);
+			listener.onComplete(new AsyncEvent(asyncContext(poll)));
+		}
+	}
+
+	private interface AsyncEventSender {
+		void send(AsyncListener listener) throws IOException;
+	}
+
+	private void awaitCompletion(Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (!drainCoordinator.getProgress().isCompleted() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+}
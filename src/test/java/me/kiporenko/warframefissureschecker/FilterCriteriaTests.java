@@ -0,0 +1,60 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterCriteriaTests {
+
+	@Test
+	void equivalentRawMissionTypesProduceEqualCriteria() {
+		FilterCriteria canonical = new FilterCriteria(List.of("capture", "defense"), true);
+
+		for (List<String> raw : List.of(
+				List.of("Defense", "Capture"),
+				List.of(" defense", "CAPTURE ", "Defense"),
+				Arrays.asList("capture", null, "", "defense"))) {
+			FilterCriteria criteria = new FilterCriteria(raw, true);
+
+			assertThat(criteria).as(raw.toString()).isEqualTo(canonical);
+			assertThat(criteria.hashCode()).as(raw.toString()).isEqualTo(canonical.hashCode());
+			assertThat(criteria.getKey()).as(raw.toString()).isEqualTo(canonical.getKey());
+		}
+	}
+
+	@Test
+	void repeatedParamsWithCommasAreSplitLikeASingleParam() {
+		// missionTypes=capture,defense&missionTypes=spy binds as two entries, the first one unsplit
+		FilterCriteria repeated = new FilterCriteria(List.of("capture,defense", "spy"), null);
+		FilterCriteria single = new FilterCriteria(List.of("capture", "defense", "spy"), null);
+
+		assertThat(repeated.getMissionTypes()).containsExactly("capture", "defense", "spy");
+		assertThat(repeated).isEqualTo(single);
+		assertThat(repeated.getKey()).isEqualTo(single.getKey());
+		assertThat(new FilterCriteria(List.of("capture,defense"), null).getKey())
+				.isNotEqualTo(new FilterCriteria(List.of("capture"), null).getKey());
+	}
+
+	@Test
+	void emptyMissionTypesMeanNoFilter() {
+		FilterCriteria none = new FilterCriteria(null, null);
+		FilterCriteria blank = new FilterCriteria(List.of(" ", ""), null);
+
+		assertThat(blank).isEqualTo(none);
+		assertThat(blank.hashCode()).isEqualTo(none.hashCode());
+		assertThat(blank.hasMissionTypeFilter()).isFalse();
+	}
+
+	@Test
+	void equalCriteriaShareOnePopularityCounter() {
+		PopularCriteriaTracker tracker = new PopularCriteriaTracker(10);
+		tracker.record(new FilterCriteria(List.of("Defense"), null), WireFormat.JSON, Set.of());
+		tracker.record(new FilterCriteria(List.of("defense"), null), WireFormat.JSON, Set.of());
+
+		assertThat(tracker.top()).hasSize(1);
+	}
+}
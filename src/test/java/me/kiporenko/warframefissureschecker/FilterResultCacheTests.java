@@ -0,0 +1,197 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterResultCacheTests {
+
+	@Test
+	void hitReturnsTheSharedViewForTheSameVersionOnly() {
+		FilterResultCache cache = new FilterResultCache(10, 1000);
+		FilterCriteria defense = criteria("Defense");
+		FilteredFissures view = view(1, defense, 3);
+		cache.put(view);
+
+		assertThat(cache.get(defense, 1)).isSameAs(view);
+		assertThat(cache.get(defense, 2)).isNull();
+		assertThat(cache.get(criteria("Capture"), 1)).isNull();
+
+		FilterResultCache.Stats stats = cache.getStats();
+		assertThat(stats.getHits()).isEqualTo(1);
+		assertThat(stats.getMisses()).isEqualTo(2);
+		assertThat(stats.getSize()).isEqualTo(1);
+		assertThat(stats.getWeight()).isEqualTo(4);
+	}
+
+	@Test
+	void olderVersionDoesNotReplaceNewerEntry() {
+		FilterResultCache cache = new FilterResultCache(10, 1000);
+		FilterCriteria defense = criteria("Defense");
+		FilteredFissures newer = view(2, defense, 1);
+		cache.put(newer);
+		cache.put(view(1, defense, 1));
+
+		assertThat(cache.get(defense, 2)).isSameAs(newer);
+		assertThat(cache.get(defense, 1)).isNull();
+	}
+
+	@Test
+	void invalidateBeforeDropsOlderVersionsAndTheirWeight() {
+		FilterResultCache cache = new FilterResultCache(10, 1000);
+		cache.put(view(1, criteria("Defense"), 4));
+		cache.put(view(2, criteria("Capture"), 2));
+
+		cache.invalidateBefore(2);
+
+		assertThat(cache.get(criteria("Defense"), 1)).isNull();
+		assertThat(cache.get(criteria("Capture"), 2)).isNotNull();
+		assertThat(cache.getStats().getSize()).isEqualTo(1);
+		assertThat(cache.getStats().getWeight()).isEqualTo(3);
+	}
+
+	@Test
+	void oneOffCriteriaCannotDisplacePopularOnes() {
+		FilterResultCache cache = new FilterResultCache(2, 1000);
+		FilterCriteria defense = criteria("Defense");
+		FilterCriteria capture = criteria("Capture");
+		requestTimes(cache, defense, 5);
+		requestTimes(cache, capture, 5);
+		cache.put(view(1, defense, 1));
+		cache.put(view(1, capture, 1));
+
+		FilterCriteria oneOff = criteria("Spy");
+		cache.get(oneOff, 1);
+		cache.put(view(1, oneOff, 1));
+
+		assertThat(cache.get(oneOff, 1)).isNull();
+		assertThat(cache.get(defense, 1)).isNotNull();
+		assertThat(cache.get(capture, 1)).isNotNull();
+		assertThat(cache.getStats().getRejections()).isEqualTo(1);
+		assertThat(cache.getStats().getEvictions()).isZero();
+	}
+
+	@Test
+	void morePopularCriteriaEvictTheLeastFrequentlyUsed() {
+		FilterResultCache cache = new FilterResultCache(2, 1000);
+		FilterCriteria defense = criteria("Defense");
+		FilterCriteria capture = criteria("Capture");
+		requestTimes(cache, defense, 5);
+		requestTimes(cache, capture, 2);
+		cache.put(view(1, defense, 1));
+		cache.put(view(1, capture, 1));
+
+		FilterCriteria survival = criteria("Survival");
+		requestTimes(cache, survival, 4);
+		cache.put(view(1, survival, 1));
+
+		assertThat(cache.get(survival, 1)).isNotNull();
+		assertThat(cache.get(defense, 1)).isNotNull();
+		assertThat(cache.get(capture, 1)).isNull();
+		assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+		assertThat(cache.getStats().getSize()).isEqualTo(2);
+	}
+
+	@Test
+	void newerSnapshotViewsDisplaceOlderOnesRegardlessOfFrequency() {
+		FilterResultCache cache = new FilterResultCache(2, 1000);
+		FilterCriteria defense = criteria("Defense");
+		FilterCriteria capture = criteria("Capture");
+		requestTimes(cache, defense, 10);
+		requestTimes(cache, capture, 10);
+		cache.put(view(1, defense, 1));
+		cache.put(view(1, capture, 1));
+
+		// A rarely polled listener bucket pre-warmed for snapshot 2 before it is published
+		FilterCriteria rare = criteria("Spy");
+		cache.put(view(2, rare, 1));
+
+		assertThat(cache.get(rare, 2)).isNotNull();
+		assertThat(cache.getStats().getRejections()).isZero();
+		assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	void weightBoundLimitsCachedFissures() {
+		FilterResultCache cache = new FilterResultCache(10, 10);
+		FilterCriteria all = criteria();
+		FilterCriteria defense = criteria("Defense");
+		FilterCriteria capture = criteria("Capture");
+
+		cache.put(view(1, all, 20)); // heavier than the whole cache
+		assertThat(cache.get(all, 1)).isNull();
+		assertThat(cache.getStats().getRejections()).isEqualTo(1);
+
+		requestTimes(cache, defense, 1);
+		cache.put(view(1, defense, 5));
+		requestTimes(cache, capture, 3);
+		cache.put(view(1, capture, 5));
+
+		assertThat(cache.get(capture, 1)).isNotNull();
+		assertThat(cache.get(defense, 1)).isNull();
+		assertThat(cache.getStats().getWeight()).isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	void concurrentUseStaysWithinBounds() throws Exception {
+		FilterResultCache cache = new FilterResultCache(8, 100);
+		List<FilterCriteria> criteria = new ArrayList<>();
+		for (int i = 0; i < 32; i++) {
+			criteria.add(criteria("type" + i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				futures.add(executor.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < 5_000; i++) {
+						FilterCriteria picked = criteria.get(random.nextInt(criteria.size()));
+						long version = random.nextInt(3);
+						if (cache.get(picked, version) == null) {
+							cache.put(view(version, picked, random.nextInt(20)));
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		FilterResultCache.Stats stats = cache.getStats();
+		assertThat(stats.getSize()).isLessThanOrEqualTo(8);
+		assertThat(stats.getWeight()).isBetween(0L, 100L);
+		assertThat(stats.getHits() + stats.getMisses()).isEqualTo(40_000);
+	}
+
+	private static void requestTimes(FilterResultCache cache, FilterCriteria criteria, int times) {
+		for (int i = 0; i < times; i++) {
+			cache.get(criteria, 0);
+		}
+	}
+
+	private static FilterCriteria criteria(String... missionTypes) {
+		return new FilterCriteria(missionTypes.length == 0 ? null : List.of(missionTypes), null);
+	}
+
+	private static FilteredFissures view(long version, FilterCriteria criteria, int size) {
+		List<Fissure> fissures = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			Fissure fissure = new Fissure();
+			fissure.setId(criteria.getKey() + "-" + i);
+			fissures.add(fissure);
+		}
+		return new FilteredFissures(version, criteria, fissures);
+	}
+}
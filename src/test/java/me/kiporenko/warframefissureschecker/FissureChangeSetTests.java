@@ -0,0 +1,50 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static me.kiporenko.warframefissureschecker.TestFissures.fissure;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FissureChangeSetTests {
+
+	@Test
+	void reportsAddedAndRemovedFissures() {
+		Fissure kept = fissure("f1", "Defense", false);
+		Fissure removed = fissure("f2", "Capture", false);
+		Fissure added = fissure("f3", "Spy", true);
+
+		FissureChangeSet changes = FissureChangeSet.between(List.of(kept, removed), List.of(kept, added));
+
+		assertThat(changes.getAdded()).containsExactly(added);
+		assertThat(changes.getRemoved()).containsExactly(removed);
+		assertThat(changes.getModified()).isEmpty();
+		assertThat(changes.getChanged()).containsExactlyInAnyOrder(added, removed);
+	}
+
+	@Test
+	void reclassifiedFissureReportsOldAndNewState() {
+		Fissure before = fissure("f1", "Defense", false);
+		Fissure after = fissure("f1", "Survival", true);
+
+		FissureChangeSet changes = FissureChangeSet.between(List.of(before), List.of(after));
+
+		assertThat(changes.getModified()).containsExactly(after);
+		assertThat(changes.getChanged()).containsExactlyInAnyOrder(before, after);
+	}
+
+	@Test
+	void etaOnlyChangeIsModifiedButNotChanged() {
+		Fissure before = fissure("f1", "Defense", false);
+		Fissure after = fissure("f1", "Defense", false);
+		before.setEta("10m 0s");
+		after.setEta("9m 30s");
+
+		FissureChangeSet changes = FissureChangeSet.between(List.of(before), List.of(after));
+
+		assertThat(changes.getModified()).containsExactly(after);
+		assertThat(changes.getChanged()).isEmpty();
+		assertThat(changes.isEmpty()).isTrue();
+	}
+}
@@ -0,0 +1,101 @@
+package me.kiporenko.warframefissureschecker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static me.kiporenko.warframefissureschecker.TestFissures.fissure;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FissurePayloadEncoderTests {
+
+	// Mirrors the date setting Boot applies to its Jackson2ObjectMapperBuilder
+	private final FissurePayloadEncoder encoder = new FissurePayloadEncoder(
+			new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+	private final FilteredFissures view = new FilteredFissures(1, new FilterCriteria(null, null), List.of(
+			fissure("f1", "Defense", false),
+			fissure("f2", "Capture", true)));
+
+	@Test
+	void binaryFormatsCarryTheSameDocumentAsJson() throws IOException {
+		JsonNode json = decode(WireFormat.JSON, encoder.encode(view, WireFormat.JSON, Set.of()));
+
+		assertThat(decode(WireFormat.CBOR, encoder.encode(view, WireFormat.CBOR, Set.of()))).isEqualTo(json);
+		assertThat(decode(WireFormat.SMILE, encoder.encode(view, WireFormat.SMILE, Set.of()))).isEqualTo(json);
+		assertThat(json.at("/fissures/0/activation").isTextual()).isTrue();
+	}
+
+	@Test
+	void projectionKeepsTheSameTypesAsTheFullDocument() throws IOException {
+		Set<String> fields = encoder.parseFields(List.of("id,activation"));
+
+		for (WireFormat format : WireFormat.values()) {
+			JsonNode full = decode(format, encoder.encode(view, format, Set.of()));
+			JsonNode projected = decode(format, encoder.encode(view, format, fields));
+
+			JsonNode fissure = projected.at("/fissures/0");
+			assertThat(fissure.size()).as(format.name()).isEqualTo(2);
+			assertThat(fissure.get("activation")).as(format.name()).isEqualTo(full.at("/fissures/0/activation"));
+			assertThat(projected.get("fissureIds")).as(format.name()).isEqualTo(full.get("fissureIds"));
+		}
+	}
+
+	@Test
+	void repeatedEncodingIsServedFromCache() {
+		byte[] first = encoder.encode(view, WireFormat.CBOR, Set.of());
+
+		assertThat(encoder.encode(view, WireFormat.CBOR, Set.of())).isSameAs(first);
+	}
+
+	@Test
+	void oneOffPayloadsDoNotDisplacePopularOnes() {
+		FissurePayloadEncoder small = new FissurePayloadEncoder(new Jackson2ObjectMapperBuilder(), 2);
+		byte[] json = encodeTimes(small, view, WireFormat.JSON, 5);
+		byte[] cbor = encodeTimes(small, view, WireFormat.CBOR, 5);
+
+		byte[] smile = small.encode(view, WireFormat.SMILE, Set.of());
+
+		assertThat(small.encode(view, WireFormat.SMILE, Set.of())).isNotSameAs(smile);
+		assertThat(small.encode(view, WireFormat.JSON, Set.of())).isSameAs(json);
+		assertThat(small.encode(view, WireFormat.CBOR, Set.of())).isSameAs(cbor);
+	}
+
+	@Test
+	void olderSnapshotPayloadsNeverBlockNewerOnes() {
+		FissurePayloadEncoder small = new FissurePayloadEncoder(new Jackson2ObjectMapperBuilder(), 2);
+		encodeTimes(small, view, WireFormat.JSON, 5);
+		encodeTimes(small, view, WireFormat.CBOR, 5);
+
+		// A rarely requested combination encoded for the next snapshot
+		FilteredFissures next = new FilteredFissures(2, new FilterCriteria(List.of("Spy"), null), List.of());
+		byte[] first = small.encode(next, WireFormat.SMILE, Set.of());
+
+		assertThat(small.encode(next, WireFormat.SMILE, Set.of())).isSameAs(first);
+	}
+
+	private static byte[] encodeTimes(FissurePayloadEncoder encoder, FilteredFissures view, WireFormat format, int times) {
+		byte[] payload = null;
+		for (int i = 0; i < times; i++) {
+			payload = encoder.encode(view, format, Set.of());
+		}
+		return payload;
+	}
+
+	private static JsonNode decode(WireFormat format, byte[] payload) throws IOException {
+		ObjectMapper reader = switch (format) {
+			case JSON -> new ObjectMapper();
+			case CBOR -> new ObjectMapper(new CBORFactory());
+			case SMILE -> new ObjectMapper(new SmileFactory());
+		};
+		return reader.readTree(payload);
+	}
+}
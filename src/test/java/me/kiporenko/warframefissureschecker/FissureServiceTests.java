@@ -0,0 +1,141 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static me.kiporenko.warframefissureschecker.TestFissures.fissure;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FissureServiceTests {
+
+	private final FissureService fissureService =
+			new FissureService(new FissurePayloadEncoder(new Jackson2ObjectMapperBuilder()));
+
+	private final FilterCriteria defense = new FilterCriteria(List.of("Defense"), null);
+	private final FilterCriteria capture = new FilterCriteria(List.of("Capture"), null);
+	private final FilterCriteria spy = new FilterCriteria(List.of("Spy"), null);
+
+	FissureServiceTests() {
+		fissureService.updateFissures(List.of(fissure("f1", "Defense", false), fissure("f2", "Capture", true)));
+	}
+
+	@AfterEach
+	void shutdown() {
+		fissureService.shutdownPrewarmPool();
+	}
+
+	@Test
+	void addedFissureWakesOnlyItsBucket() {
+		DeferredResult<FilteredFissures> defenseListener = park(defense, Set.of("f1"));
+		DeferredResult<FilteredFissures> spyListener = park(spy, Set.of());
+
+		Fissure ticked = fissure("f1", "Defense", false);
+		ticked.setEta("9m 30s");
+		fissureService.updateFissures(List.of(ticked, fissure("f2", "Capture", true), fissure("f3", "Spy", false)));
+
+		assertThat(spyListener.hasResult()).isTrue();
+		assertThat(((FilteredFissures) spyListener.getResult()).getFissureIds()).containsExactly("f3");
+		assertThat(defenseListener.hasResult()).isFalse();
+		assertThat(fissureService.getActiveListenerCount()).isEqualTo(1);
+	}
+
+	@Test
+	void removedAndReclassifiedFissuresWakeEveryBucketTheyLeaveOrEnter() {
+		DeferredResult<FilteredFissures> defenseListener = park(defense, Set.of("f1"));
+		DeferredResult<FilteredFissures> captureListener = park(capture, Set.of("f2"));
+		DeferredResult<FilteredFissures> spyListener = park(spy, Set.of());
+
+		// f1 expires, f2 turns from Capture into Defense
+		fissureService.updateFissures(List.of(fissure("f2", "Defense", true)));
+
+		assertThat(((FilteredFissures) defenseListener.getResult()).getFissureIds()).containsExactly("f2");
+		assertThat(((FilteredFissures) captureListener.getResult()).getFissureIds()).isEmpty();
+		assertThat(spyListener.hasResult()).isFalse();
+	}
+
+	@Test
+	void etaOnlyUpdateWakesNobody() {
+		DeferredResult<FilteredFissures> defenseListener = park(defense, Set.of("f1"));
+		DeferredResult<FilteredFissures> captureListener = park(capture, Set.of("f2"));
+
+		Fissure ticked = fissure("f1", "Defense", false);
+		ticked.setEta("9m 30s");
+		fissureService.updateFissures(List.of(ticked, fissure("f2", "Capture", true)));
+
+		assertThat(defenseListener.hasResult()).isFalse();
+		assertThat(captureListener.hasResult()).isFalse();
+		assertThat(fissureService.getActiveListenerCount()).isEqualTo(2);
+	}
+
+	@Test
+	void unaffectedBucketsArePrewarmedForTheNewSnapshot() {
+		park(defense, Set.of("f1"));
+		park(spy, Set.of());
+
+		fissureService.updateFissures(List.of(fissure("f1", "Defense", false), fissure("f3", "Spy", false)));
+		long misses = fissureService.getFilterCacheStats().getMisses();
+
+		// The defense bucket was not woken, but its next timeout or re-poll must not filter on demand
+		assertThat(fissureService.getCurrentFissureIds(defense)).containsExactly("f1");
+		assertThat(fissureService.getFilterCacheStats().getMisses()).isEqualTo(misses);
+	}
+
+	@Test
+	void popularSubscriptionIsPrecomputedBeforeTheSnapshotIsPublished() {
+		List<Long> publishedVersionsDuringPrewarm = new CopyOnWriteArrayList<>();
+		AtomicReference<byte[]> prewarmedPayload = new AtomicReference<>();
+		AtomicReference<FissureService> service = new AtomicReference<>();
+		FissurePayloadEncoder encoder = new FissurePayloadEncoder(new Jackson2ObjectMapperBuilder()) {
+			@Override
+			public byte[] encode(FilteredFissures view, WireFormat format, Set<String> fields) {
+				byte[] payload = super.encode(view, format, fields);
+				if (view.getVersion() > service.get().getSnapshotVersion()) {
+					publishedVersionsDuringPrewarm.add(service.get().getSnapshotVersion());
+					prewarmedPayload.set(payload);
+				}
+				return payload;
+			}
+		};
+		FissureService prewarmed = new FissureService(encoder);
+		service.set(prewarmed);
+		try {
+			prewarmed.updateFissures(List.of(fissure("f1", "Defense", false)));
+			Set<String> fields = encoder.parseFields(List.of("id"));
+			for (int i = 0; i < 5; i++) {
+				prewarmed.recordRequest(defense, WireFormat.CBOR, fields);
+			}
+
+			prewarmed.updateFissures(List.of(fissure("f1", "Defense", false), fissure("f4", "Defense", true)));
+
+			// Encoded from the unpublished snapshot 2 while snapshot 1 was still being served
+			assertThat(publishedVersionsDuringPrewarm).containsExactly(1L);
+			assertThat(prewarmed.getSnapshotVersion()).isEqualTo(2);
+
+			FilterResultCache.Stats before = prewarmed.getFilterCacheStats();
+			FilteredFissures view = prewarmed.getFilteredFissures(defense);
+			FilterResultCache.Stats after = prewarmed.getFilterCacheStats();
+
+			assertThat(view.getVersion()).isEqualTo(2);
+			assertThat(view.getFissureIds()).containsExactlyInAnyOrder("f1", "f4");
+			assertThat(after.getHits()).isEqualTo(before.getHits() + 1);
+			assertThat(after.getMisses()).isEqualTo(before.getMisses());
+			assertThat(encoder.encode(view, WireFormat.CBOR, fields)).isSameAs(prewarmedPayload.get());
+		} finally {
+			prewarmed.shutdownPrewarmPool();
+		}
+	}
+
+	private DeferredResult<FilteredFissures> park(FilterCriteria criteria, Set<String> expectedIds) {
+		DeferredResult<FilteredFissures> result = new DeferredResult<>();
+		fissureService.registerListener(criteria, result, expectedIds);
+		assertThat(result.hasResult()).as("parked").isFalse();
+		return result;
+	}
+}
@@ -0,0 +1,82 @@
+package me.kiporenko.warframefissureschecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static me.kiporenko.warframefissureschecker.TestFissures.fissure;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubscriptionIndexTests {
+
+	private final FilterCriteria defense = new FilterCriteria(List.of("Defense"), null);
+	private final FilterCriteria hardDefense = new FilterCriteria(List.of("Defense"), true);
+	private final FilterCriteria capture = new FilterCriteria(List.of("Capture"), null);
+	private final FilterCriteria anyHard = new FilterCriteria(null, true);
+	private final FilterCriteria any = new FilterCriteria(null, null);
+
+	private final SubscriptionIndex index = new SubscriptionIndex();
+
+	SubscriptionIndexTests() {
+		List.of(defense, hardDefense, capture, anyHard, any).forEach(index::add);
+	}
+
+	@Test
+	void addedFissureWakesMatchingBucketsOnly() {
+		Fissure added = fissure("f1", "Defense", false);
+
+		assertThat(affectedBy(List.of(), List.of(added)))
+				.containsExactlyInAnyOrder(defense.getKey(), any.getKey());
+	}
+
+	@Test
+	void removedFissureWakesMatchingBucketsOnly() {
+		Fissure removed = fissure("f1", "Capture", true);
+
+		assertThat(affectedBy(List.of(removed), List.of()))
+				.containsExactlyInAnyOrder(capture.getKey(), anyHard.getKey(), any.getKey());
+	}
+
+	@Test
+	void reclassifiedFissureWakesBucketsOfBothStates() {
+		Fissure before = fissure("f1", "Capture", false);
+		Fissure after = fissure("f1", "Defense", true);
+
+		assertThat(affectedBy(List.of(before), List.of(after))).containsExactlyInAnyOrder(
+				capture.getKey(), defense.getKey(), hardDefense.getKey(), anyHard.getKey(), any.getKey());
+	}
+
+	@Test
+	void etaOnlyChangeWakesNobody() {
+		Fissure before = fissure("f1", "Defense", true);
+		Fissure after = fissure("f1", "Defense", true);
+		before.setEta("10m 0s");
+		after.setEta("9m 30s");
+
+		assertThat(affectedBy(List.of(before), List.of(after))).isEmpty();
+	}
+
+	@Test
+	void missionTypesMatchRegardlessOfCase() {
+		FilterCriteria mixedCase = new FilterCriteria(List.of(" SURVIVAL "), false);
+		index.add(mixedCase);
+
+		assertThat(index.affectedBuckets(List.of(fissure("f1", "Survival", false))))
+				.containsExactlyInAnyOrder(mixedCase.getKey(), any.getKey());
+		assertThat(index.affectedBuckets(List.of(fissure("f2", "survival", true))))
+				.containsExactlyInAnyOrder(anyHard.getKey(), any.getKey());
+	}
+
+	@Test
+	void removedBucketIsNoLongerWoken() {
+		index.remove(defense.getKey());
+
+		assertThat(index.affectedBuckets(List.of(fissure("f1", "Defense", false))))
+				.containsExactly(any.getKey());
+	}
+
+	private Set<String> affectedBy(List<Fissure> previous, List<Fissure> next) {
+		return index.affectedBuckets(FissureChangeSet.between(previous, next).getChanged());
+	}
+}
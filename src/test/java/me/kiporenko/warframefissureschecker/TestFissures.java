@@ -0,0 +1,22 @@
+package me.kiporenko.warframefissureschecker;
+
+import java.time.Instant;
+
+/**
+ * Shared {@link Fissure} fixture for tests.
+ */
+final class TestFissures {
+
+	private TestFissures() {
+	}
+
+	static Fissure fissure(String id, String missionType, boolean hard) {
+		Fissure fissure = new Fissure();
+		fissure.setId(id);
+		fissure.setMissionType(missionType);
+		fissure.setHard(hard);
+		fissure.setActivation(Instant.parse("2026-01-01T00:00:00Z"));
+		fissure.setExpiry(Instant.parse("2026-01-01T01:00:00Z"));
+		return fissure;
+	}
+}
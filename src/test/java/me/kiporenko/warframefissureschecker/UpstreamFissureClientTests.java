@@ -0,0 +1,233 @@
+package me.kiporenko.warframefissureschecker;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamFissureClientTests {
+
+	private static final String BODY = "[{\"id\":\"f1\",\"missionType\":\"Defense\",\"isHard\":false}]";
+
+	private final List<HttpServer> servers = new ArrayList<>();
+
+	@AfterEach
+	void stopServers() {
+		servers.forEach(server -> server.stop(0));
+	}
+
+	@Test
+	void hedgesToMirrorWhenPrimaryIsSlow() {
+		StubUpstream slow = startStub(Duration.ofSeconds(3), 200);
+		StubUpstream fast = startStub(Duration.ZERO, 200);
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(slow.baseUrl, fast.baseUrl),
+				Duration.ofSeconds(2), new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+		long start = System.nanoTime();
+		List<Fissure> fissures = client.fetchFissures().block(Duration.ofSeconds(5));
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		assertThat(fissures).extracting(Fissure::getId).containsExactly("f1");
+		assertThat(elapsed).isLessThan(Duration.ofMillis(1500));
+		assertThat(fast.requests.get()).isEqualTo(1);
+	}
+
+	@Test
+	void hedgesImmediatelyWhenPrimaryFails() {
+		StubUpstream broken = startStub(Duration.ZERO, 503);
+		StubUpstream healthy = startStub(Duration.ofMillis(100), 200);
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(broken.baseUrl, healthy.baseUrl),
+				Duration.ofSeconds(8), new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+		long start = System.nanoTime();
+		List<Fissure> fissures = client.fetchFissures().block(Duration.ofSeconds(5));
+
+		assertThat(fissures).hasSize(1);
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+		assertThat(client.getStats().getCircuitState()).isEqualTo("CLOSED");
+	}
+
+	@Test
+	void singleMirrorIsNotHedgedAfterFailure() throws InterruptedException {
+		StubUpstream broken = startStub(Duration.ZERO, 503);
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(broken.baseUrl),
+				Duration.ofMillis(400), new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+		assertThatThrownBy(() -> client.fetchFissures().block(Duration.ofSeconds(5)))
+				.isInstanceOf(UpstreamFissureClient.UpstreamUnavailableException.class);
+		// Outlast the hedge delay (timeout / 4) so a late hedge would have been sent by now
+		Thread.sleep(300);
+
+		assertThat(broken.requests.get()).isEqualTo(1);
+	}
+
+	@Test
+	void singleMirrorIsHedgedWhenSlow() {
+		StubUpstream slow = startStub(Duration.ofMillis(700), 200);
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(slow.baseUrl),
+				Duration.ofSeconds(2), new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+		assertThat(client.fetchFissures().block(Duration.ofSeconds(5))).hasSize(1);
+		assertThat(slow.requests.get()).isEqualTo(2);
+	}
+
+	@Test
+	void opensCircuitAfterRepeatedFailuresAndStopsCallingUpstream() {
+		StubUpstream broken = startStub(Duration.ZERO, 500);
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(broken.baseUrl),
+				Duration.ofSeconds(1), new CircuitBreaker(2, Duration.ofMinutes(1)));
+
+		for (int i = 0; i < 2; i++) {
+			assertThatThrownBy(() -> client.fetchFissures().block(Duration.ofSeconds(5)))
+					.isInstanceOf(UpstreamFissureClient.UpstreamUnavailableException.class);
+		}
+		int requestsWhenOpened = broken.requests.get();
+
+		assertThatThrownBy(() -> client.fetchFissures().block(Duration.ofSeconds(5)))
+				.isInstanceOf(UpstreamFissureClient.UpstreamUnavailableException.class)
+				.hasMessageContaining("Circuit open");
+		assertThat(broken.requests.get()).isEqualTo(requestsWhenOpened);
+		assertThat(client.getStats().getCircuitState()).isEqualTo("OPEN");
+	}
+
+	@Test
+	void halfOpenTrialClosesCircuitOnRecovery() throws InterruptedException {
+		StubUpstream flaky = startStub(Duration.ZERO, 500);
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(flaky.baseUrl),
+				Duration.ofSeconds(1), new CircuitBreaker(1, Duration.ofMillis(200)));
+
+		assertThatThrownBy(() -> client.fetchFissures().block(Duration.ofSeconds(5)))
+				.isInstanceOf(UpstreamFissureClient.UpstreamUnavailableException.class);
+		assertThat(client.getStats().getCircuitState()).isEqualTo("OPEN");
+
+		flaky.status = 200;
+		Thread.sleep(300);
+
+		assertThat(client.fetchFissures().block(Duration.ofSeconds(5))).hasSize(1);
+		assertThat(client.getStats().getCircuitState()).isEqualTo("CLOSED");
+	}
+
+	@Test
+	void openCircuitSkipsScheduledTicksAndBacksOffAfterFailedTrials() {
+		StubUpstream broken = startStub(Duration.ZERO, 500);
+		MutableClock clock = new MutableClock();
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(broken.baseUrl), Duration.ofSeconds(1),
+				new CircuitBreaker(1, Duration.ofMinutes(6), Duration.ofMinutes(30), clock));
+
+		// Ticks every 5 minutes, as FissureUpdater schedules them: fails, skipped, trial (fails), skipped, skipped, trial
+		List<Integer> requestsPerTick = new ArrayList<>();
+		for (int tick = 0; tick < 6; tick++) {
+			int before = broken.requests.get();
+			assertThatThrownBy(() -> client.fetchFissures().block(Duration.ofSeconds(5)))
+					.isInstanceOf(UpstreamFissureClient.UpstreamUnavailableException.class);
+			requestsPerTick.add(broken.requests.get() - before);
+			clock.advance(Duration.ofMinutes(5));
+		}
+
+		assertThat(requestsPerTick).containsExactly(1, 0, 1, 0, 0, 1);
+	}
+
+	@Test
+	void cancelledHalfOpenTrialDoesNotBlockLaterTrials() {
+		StubUpstream flaky = startStub(Duration.ZERO, 500);
+		MutableClock clock = new MutableClock();
+		UpstreamFissureClient client = new UpstreamFissureClient(List.of(flaky.baseUrl), Duration.ofSeconds(1),
+				new CircuitBreaker(1, Duration.ofMinutes(6), Duration.ofMinutes(30), clock));
+
+		assertThatThrownBy(() -> client.fetchFissures().block(Duration.ofSeconds(5)))
+				.isInstanceOf(UpstreamFissureClient.UpstreamUnavailableException.class);
+		clock.advance(Duration.ofMinutes(7));
+		flaky.status = 200;
+		flaky.latency = Duration.ofMillis(800);
+
+		// The caller gives up on the trial before the upstream answers
+		assertThatThrownBy(() -> client.fetchFissures().block(Duration.ofMillis(100)))
+				.isInstanceOf(IllegalStateException.class)
+				.isNotInstanceOf(UpstreamFissureClient.UpstreamUnavailableException.class);
+
+		flaky.latency = Duration.ZERO;
+		assertThat(client.fetchFissures().block(Duration.ofSeconds(5))).hasSize(1);
+		assertThat(client.getStats().getCircuitState()).isEqualTo("CLOSED");
+	}
+
+	private StubUpstream startStub(Duration latency, int status) {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+			StubUpstream stub = new StubUpstream("http://127.0.0.1:" + server.getAddress().getPort(), latency, status);
+			server.createContext("/fissures/", exchange -> {
+				stub.requests.incrementAndGet();
+				try {
+					Thread.sleep(stub.latency.toMillis());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				byte[] body = stub.status == 200 ? BODY.getBytes(StandardCharsets.UTF_8) : new byte[0];
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(stub.status, body.length == 0 ? -1 : body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				} catch (IOException e) {
+					// client gave up on a slow stub
+				}
+			});
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.start();
+			servers.add(server);
+			return stub;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class MutableClock extends Clock {
+		private volatile Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+
+	private static class StubUpstream {
+		final String baseUrl;
+		final AtomicInteger requests = new AtomicInteger();
+		volatile Duration latency;
+		volatile int status;
+
+		StubUpstream(String baseUrl, Duration latency, int status) {
+			this.baseUrl = baseUrl;
+			this.latency = latency;
+			this.status = status;
+		}
+	}
+}